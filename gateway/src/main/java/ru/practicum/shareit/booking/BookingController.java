@@ -3,18 +3,24 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.State;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 
@@ -30,9 +36,14 @@ public class BookingController {
     public ResponseEntity<Object> getBookings(@RequestHeader(SHAREIT_HEADER) Long userId,
                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "after", required = false) String after) {
         State state = State.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        if (after != null) {
+            log.info("Get booking with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+            return bookingClient.getBookingsByUser(userId, state, after, size);
+        }
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
         return bookingClient.getBookingsByUser(userId, state, from, size);
     }
@@ -41,13 +52,30 @@ public class BookingController {
     public ResponseEntity<Object> getAllBookingsByOwner(@RequestHeader(SHAREIT_HEADER) Long ownerId,
                                                         @RequestParam(name = "state", defaultValue = "all") String stateParam,
                                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(name = "after", required = false) String after) {
         State state = State.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+        if (after != null) {
+            log.info("Get booking with state {}, userId={}, after={}, size={}", stateParam, ownerId, after, size);
+            return bookingClient.getBookingsByOwnerId(ownerId, state, after, size);
+        }
         log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, ownerId, from, size);
         return bookingClient.getBookingsByOwnerId(ownerId, state, from, size);
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<Object> getBookingStats(@RequestHeader(SHAREIT_HEADER) Long userId) {
+        log.info("Get booking stats, userId={}", userId);
+        return bookingClient.getBookingStatsByUser(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    public ResponseEntity<Object> getBookingStatsByOwner(@RequestHeader(SHAREIT_HEADER) Long ownerId) {
+        log.info("Get booking stats, ownerId={}", ownerId);
+        return bookingClient.getBookingStatsByOwner(ownerId);
+    }
+
     @PostMapping
     public ResponseEntity<Object> bookItem(@RequestHeader(SHAREIT_HEADER) Long userId,
                                            @RequestBody @Valid BookItemRequestDto requestDto) {
@@ -55,6 +83,20 @@ public class BookingController {
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> bookItems(@RequestHeader(SHAREIT_HEADER) Long userId,
+                                            @RequestBody @NotEmpty @Size(max = 10000)
+                                            List<@Valid BookItemRequestDto> requestDtos) {
+        log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> getBookingEvents(@RequestHeader(SHAREIT_HEADER) Long userId) {
+        log.info("Subscribe to booking events, userId={}", userId);
+        return bookingClient.streamEvents(userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader(SHAREIT_HEADER) Long userId,
                                              @PathVariable Long bookingId) {
@@ -62,6 +104,15 @@ public class BookingController {
         return bookingClient.getBooking(userId, bookingId);
     }
 
+    @ResponseBody
+    @PatchMapping("/bulk")
+    public ResponseEntity<Object> approveBookings(@RequestHeader(SHAREIT_HEADER) Long userId,
+                                                  @RequestBody @NotEmpty @Size(max = 1000)
+                                                  List<@Valid BookingDecisionDto> decisions) {
+        log.info("Bulk approve of {} bookings, userId={}", decisions.size(), userId);
+        return bookingClient.approveBookings(decisions, userId);
+    }
+
     @ResponseBody
     @PatchMapping("/{bookingId}")
     public ResponseEntity<Object> approveBooking(@PathVariable @NotNull Long bookingId,
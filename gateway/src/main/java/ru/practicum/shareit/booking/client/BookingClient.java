@@ -3,28 +3,56 @@ package ru.practicum.shareit.booking.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final ExecutorService eventStreams;
+    private final long eventsTimeout;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         @Value("${shareit.booking.events.max-subscribers:100}") int maxSubscribers,
+                         @Value("${shareit.booking.events.timeout:1800000}") long eventsTimeout) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        if (maxSubscribers <= 0) {
+            throw new IllegalArgumentException("Booking event subscriber limit must be positive");
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxSubscribers, maxSubscribers, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>());
+        executor.allowCoreThreadTimeOut(true);
+        this.eventStreams = executor;
+        this.eventsTimeout = eventsTimeout;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventStreams.shutdownNow();
     }
 
     public ResponseEntity<Object> getBookingsByUser(Long userId, State state, Integer from, Integer size) {
@@ -36,6 +64,15 @@ public class BookingClient extends BaseClient {
         return get("?state={state}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getBookingsByUser(Long userId, State state, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("?state={state}&after={after}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getBookingsByOwnerId(Long ownerId, State state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
@@ -45,11 +82,36 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
 
+    public ResponseEntity<Object> getBookingsByOwnerId(Long ownerId, State state, String after, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "after", after,
+                "size", size
+        );
+        return get("/owner?state={state}&after={after}&size={size}", ownerId, parameters);
+    }
+
+
+    public ResponseEntity<Object> getBookingStatsByUser(Long userId) {
+        return get("/stats", userId);
+    }
+
+    public ResponseEntity<Object> getBookingStatsByOwner(Long ownerId) {
+        return get("/owner/stats", ownerId);
+    }
 
     public ResponseEntity<Object> bookItem(Long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<ResponseBodyEmitter> streamEvents(Long userId) {
+        return relay("/events", userId, MediaType.TEXT_EVENT_STREAM, eventStreams, eventsTimeout);
+    }
+
+    public ResponseEntity<Object> bookItems(Long userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
     public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
@@ -58,4 +120,8 @@ public class BookingClient extends BaseClient {
         String path = "/" + bookingId + "?approved=" + approved;
         return patch(path, userId, null, null);
     }
+
+    public ResponseEntity<Object> approveBookings(List<BookingDecisionDto> decisions, Long userId) {
+        return patch("/bulk", userId, decisions);
+    }
 }
@@ -1,16 +1,31 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import ru.practicum.shareit.handler.ErrorResponse;
+
+import javax.servlet.http.HttpServletResponse;
 
 public class BaseClient {
     protected final RestTemplate rest;
@@ -79,6 +94,125 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Relays a long-lived GET stream on the given executor instead of the request thread. The caller waits
+     * only for the upstream status line, so the gateway answers with the server's status; a full executor
+     * is answered with 503.
+     */
+    protected ResponseEntity<ResponseBodyEmitter> relay(String path, Long userId, MediaType mediaType,
+                                                        Executor executor, long timeout) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout);
+        CompletableFuture<ResponseEntity<byte[]>> head = new CompletableFuture<>();
+        try {
+            executor.execute(() -> relay(path, userId, mediaType, emitter, head));
+        } catch (RejectedExecutionException e) {
+            return error(emitter, HttpStatus.SERVICE_UNAVAILABLE, "Too many streams in progress, try again later");
+        }
+        ResponseEntity<byte[]> upstream;
+        try {
+            upstream = head.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(upstream.getStatusCodeValue());
+        if (upstream.getHeaders().getContentType() != null) {
+            response.contentType(upstream.getHeaders().getContentType());
+        }
+        if (upstream.getBody() != null) {
+            try {
+                emitter.send(upstream.getBody());
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            emitter.complete();
+        }
+        return response.body(emitter);
+    }
+
+    private void relay(String path, Long userId, MediaType mediaType, ResponseBodyEmitter emitter,
+                       CompletableFuture<ResponseEntity<byte[]>> head) {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().setAccept(List.of(mediaType));
+                if (userId != null) {
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                }
+            }, response -> {
+                head.complete(ResponseEntity.status(response.getRawStatusCode())
+                        .headers(response.getHeaders()).build());
+                InputStream in = response.getBody();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    emitter.send(Arrays.copyOf(buffer, read));
+                }
+                return null;
+            });
+            emitter.complete();
+        } catch (HttpStatusCodeException e) {
+            head.complete(ResponseEntity.status(e.getRawStatusCode()).contentType(MediaType.APPLICATION_JSON)
+                    .body(e.getResponseBodyAsByteArray()));
+        } catch (RestClientException e) {
+            if (!head.completeExceptionally(e)) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> error(ResponseBodyEmitter emitter, HttpStatus status,
+                                                             String message) {
+        try {
+            emitter.send(new ErrorResponse(message), MediaType.APPLICATION_JSON);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+
+    protected void stream(String path, HttpMethod method, Long userId, @Nullable MediaType contentType,
+                          @Nullable InputStream body, MediaType mediaType, HttpServletResponse target)
+            throws IOException {
+        try {
+            rest.execute(path, method, request -> {
+                request.getHeaders().setAccept(List.of(mediaType));
+                if (userId != null) {
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                }
+                if (body == null) {
+                    return;
+                }
+                request.getHeaders().setContentType(contentType);
+                if (request instanceof StreamingHttpOutputMessage) {
+                    ((StreamingHttpOutputMessage) request).setBody(body::transferTo);
+                } else {
+                    body.transferTo(request.getBody());
+                }
+            }, response -> {
+                target.setStatus(response.getRawStatusCode());
+                if (response.getHeaders().getContentType() != null) {
+                    target.setContentType(response.getHeaders().getContentType().toString());
+                }
+                target.flushBuffer();
+                copy(response.getBody(), target.getOutputStream());
+                return null;
+            });
+        } catch (HttpStatusCodeException e) {
+            target.setStatus(e.getRawStatusCode());
+            target.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            target.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
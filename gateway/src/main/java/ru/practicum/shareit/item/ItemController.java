@@ -2,6 +2,9 @@ package ru.practicum.shareit.item;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,9 +13,15 @@ import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 
@@ -20,6 +29,7 @@ import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 @AllArgsConstructor
 @RequestMapping(path = "/items")
 @Slf4j
+@Validated
 public class ItemController {
     private final ItemClient itemClient;
 
@@ -30,28 +40,86 @@ public class ItemController {
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public void importItems(@RequestHeader(SHAREIT_HEADER) Long userId,
+                            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("User: {} import items as {}", userId, contentType);
+        itemClient.importItems(userId, contentType, request.getInputStream(), response);
+    }
+
     @GetMapping("/{itemId}")
     public ResponseEntity<Object> getItemById(@RequestHeader(SHAREIT_HEADER) Long userId, @PathVariable Long itemId) {
         log.info("User: {} get item: {}", userId, itemId);
         return itemClient.getItemById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long itemId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                  LocalDateTime to,
+                                                  @RequestParam(defaultValue = "HOUR") String granularity) {
+        log.info("Get availability of item: {} from {} to {} by {}", itemId, from, to, granularity);
+        return itemClient.getAvailability(itemId, from, to, granularity.toUpperCase());
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAllUserItems(@RequestHeader(SHAREIT_HEADER) Long userId,
                                                   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                  @RequestParam(name = "after", required = false) String after) {
         log.info("Get items user: {}", userId);
+        if (after != null) {
+            return itemClient.getAllUserItems(userId, after, size);
+        }
         return itemClient.getAllUserItems(userId, from, size);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestParam(name = "text") String word,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "start", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                              @RequestParam(name = "end", required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                              @RequestParam(name = "minSimilarity", required = false)
+                                              Double minSimilarity) {
         log.info("search item: {}", word);
+        if (minSimilarity != null) {
+            if (!(minSimilarity > 0 && minSimilarity <= 1) || start != null || end != null) {
+                throw new IllegalArgumentException("Min similarity must be in (0, 1] and can't be used with a period");
+            }
+            return itemClient.searchItems(word, minSimilarity, from, size);
+        }
+        if (start != null || end != null) {
+            if (start == null || end == null || !end.isAfter(start)) {
+                throw new IllegalArgumentException("Search period is incorrect");
+            }
+            return itemClient.searchItems(word, start, end, from, size);
+        }
         return itemClient.searchItems(word, from, size);
     }
 
+    @GetMapping("/search/faceted")
+    public ResponseEntity<Object> searchItemsWithFacets(@RequestParam(name = "text") String word,
+                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                        Integer from,
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                        Integer size) {
+        log.info("faceted search item: {}", word);
+        return itemClient.searchItemsWithFacets(word, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@NotBlank @RequestParam(name = "prefix") String prefix,
+                                               @Positive @Max(50) @RequestParam(name = "size", defaultValue = "10")
+                                               Integer size) {
+        return itemClient.suggestNames(prefix, size);
+    }
+
     @DeleteMapping("/{itemId}")
     public ResponseEntity<Object> deleteItem(@RequestHeader(SHAREIT_HEADER) Long userId,
                                              @PathVariable Long itemId) {
@@ -65,6 +133,13 @@ public class ItemController {
         return itemClient.updateItem(itemId, userId, itemDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long itemId,
+                                              @RequestParam(name = "after", required = false) String after,
+                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemClient.getComments(itemId, after, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> createComment(@RequestHeader(SHAREIT_HEADER) Long userId,
                                                 @PathVariable Long itemId,
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
@@ -11,6 +13,12 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
@@ -20,7 +28,11 @@ public class ItemClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> {
+                            HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
+                            factory.setBufferRequestBody(false);
+                            return factory;
+                        })
                         .build()
         );
     }
@@ -29,18 +41,76 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
+    public void importItems(Long userId, MediaType contentType, InputStream body, HttpServletResponse response)
+            throws IOException {
+        stream("/import", HttpMethod.POST, userId, contentType, body, MediaType.APPLICATION_NDJSON, response);
+    }
+
     public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                  String granularity) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to,
+                "granularity", granularity
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}&granularity={granularity}", null, parameters);
+    }
+
     public ResponseEntity<Object> getAllUserItems(Long userId, Integer from, Integer size) {
-        return get("?from" + from + "&size=" + size, userId);
+        return get("?from=" + from + "&size=" + size, userId);
+    }
+
+    public ResponseEntity<Object> getAllUserItems(Long userId, String after, Integer size) {
+        return get("?after=" + after + "&size=" + size, userId);
     }
 
     public ResponseEntity<Object> searchItems(String word, Integer from, Integer size) {
         return get("/search?text=" + word + "&from=" + from + "&size=" + size);
     }
 
+    public ResponseEntity<Object> searchItems(String word, Double minSimilarity, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", word,
+                "minSimilarity", minSimilarity,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&minSimilarity={minSimilarity}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> searchItems(String word, LocalDateTime start, LocalDateTime end, Integer from,
+                                              Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", word,
+                "start", start,
+                "end", end,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&start={start}&end={end}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> searchItemsWithFacets(String word, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", word,
+                "from", from,
+                "size", size
+        );
+        return get("/search/faceted?text={text}&from={from}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "size", size
+        );
+        return get("/suggest?prefix={prefix}&size={size}", null, parameters);
+    }
+
     public ResponseEntity<Object> deleteItem(Long userId, Long itemId) {
         return delete("/" + itemId, userId);
     }
@@ -49,6 +119,13 @@ public class ItemClient extends BaseClient {
         return patch("/" + itemId, userId, itemDto);
     }
 
+    public ResponseEntity<Object> getComments(Long itemId, String after, Integer size) {
+        if (after == null) {
+            return get("/" + itemId + "/comments?size=" + size);
+        }
+        return get("/" + itemId + "/comments?after=" + after + "&size=" + size);
+    }
+
     public ResponseEntity<Object> createComment(CommentDto commentDto, Long itemId, Long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
@@ -7,7 +7,7 @@ import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
-import java.util.Set;
+import java.util.List;
 
 @Getter
 @Setter
@@ -24,7 +24,7 @@ public class ItemDto {
     private String description;
     @NotNull(groups = {Create.class})
     private Boolean available;
-    private Set<CommentDto> comments;
+    private List<CommentDto> comments;
     private ShortBookingDto lastBooking;
     private ShortBookingDto nextBooking;
     private Long requestId;
@@ -46,8 +46,12 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAll(@NotNull @RequestHeader(SHAREIT_HEADER) Long userId,
                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                         @RequestParam(name = "after", required = false) String after) {
         log.info("user: {} get all request", userId);
+        if (after != null) {
+            return itemRequestClient.getAll(userId, after, size);
+        }
         return itemRequestClient.getAll(userId, from, size);
     }
 }
@@ -37,7 +37,11 @@ public class ItemRequestClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        return get("/all" + "?from" + from + "&size=" + size, userId);
+        return get("/all" + "?from=" + from + "&size=" + size, userId);
+    }
+
+    public ResponseEntity<Object> getAll(Long userId, String after, Integer size) {
+        return get("/all" + "?after=" + after + "&size=" + size, userId);
     }
 
 }
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class BaseClientTest {
+    private MockRestServiceServer server;
+    private ExecutorService executor;
+    private TestClient client;
+
+    @BeforeEach
+    void setup() {
+        RestTemplate rest = new RestTemplate();
+        server = MockRestServiceServer.bindTo(rest).build();
+        executor = Executors.newSingleThreadExecutor();
+        client = new TestClient(rest);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void test01_relayAnswersWithUpstreamStatusOffTheRequestThread() throws InterruptedException {
+        server.expect(requestTo("/events")).andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess("data:{}\n\n", MediaType.TEXT_EVENT_STREAM));
+        ResponseEntity<ResponseBodyEmitter> response = client.relay(executor);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.TEXT_EVENT_STREAM, response.getHeaders().getContentType());
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        server.verify();
+    }
+
+    @Test
+    void test02_relayPassesUpstreamErrors() {
+        server.expect(requestTo("/events")).andRespond(withStatus(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON).body("{\"error\":\"not found\"}"));
+        ResponseEntity<ResponseBodyEmitter> response = client.relay(executor);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+    }
+
+    @Test
+    void test03_relayAnswers503WhenExecutorIsFull() {
+        ResponseEntity<ResponseBodyEmitter> response = client.relay(command -> {
+            throw new RejectedExecutionException();
+        });
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        server.verify();
+    }
+
+    private static class TestClient extends BaseClient {
+        TestClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        ResponseEntity<ResponseBodyEmitter> relay(Executor executor) {
+            return relay("/events", 1L, MediaType.TEXT_EVENT_STREAM, executor, 1000);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.client.ItemClient;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemController.class)
+public class ItemControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @MockBean
+    private ItemClient itemClient;
+
+    @Test
+    void test01_suggestNames() throws Exception {
+        when(itemClient.suggestNames("dr", 50)).thenReturn(ResponseEntity.ok().build());
+        mvc.perform(get("/items/suggest").param("prefix", "dr").param("size", "50"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void test02_suggestNamesRejectsTooLargeSize() throws Exception {
+        mvc.perform(get("/items/suggest").param("prefix", "dr").param("size", "51"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemClient);
+    }
+
+    @Test
+    void test03_suggestNamesRejectsBlankPrefix() throws Exception {
+        mvc.perform(get("/items/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemClient);
+    }
+}
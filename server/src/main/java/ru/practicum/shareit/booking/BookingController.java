@@ -1,15 +1,24 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.PageableException;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
+import static ru.practicum.shareit.util.HeaderConst.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 
 @RestController
@@ -26,6 +35,29 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, bookerId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDtoOut> createAll(
+            @RequestBody List<BookingDto> bookingDtos,
+            @RequestHeader(SHAREIT_HEADER) long bookerId
+    ) {
+        return bookingService.createBookings(bookingDtos, bookerId);
+    }
+
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(SHAREIT_HEADER) Long userId) {
+        return bookingService.subscribe(userId);
+    }
+
+    @GetMapping("/stats")
+    public BookingStatsDto getStatsByUserId(@RequestHeader(SHAREIT_HEADER) Long userId) {
+        return bookingService.getStatsByUserId(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    public BookingStatsDto getStatsByOwnerId(@RequestHeader(SHAREIT_HEADER) Long ownerId) {
+        return bookingService.getStatsByOwnerId(ownerId);
+    }
+
     @GetMapping("{bookingId}")
     public BookingDtoOut get(
             @PathVariable Long bookingId,
@@ -33,6 +65,12 @@ public class BookingController {
         return bookingService.getBooking(bookingId, userId);
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingDecisionResultDto> approveAll(@RequestBody List<BookingDecisionDto> decisions,
+                                                     @RequestHeader(SHAREIT_HEADER) Long userId) {
+        return bookingService.approveAll(decisions, userId);
+    }
+
     @PatchMapping("{bookingId}")
     public BookingDtoOut approve(@PathVariable Long bookingId,
                                  @RequestHeader(SHAREIT_HEADER) Long userId,
@@ -46,8 +84,21 @@ public class BookingController {
             @RequestHeader(SHAREIT_HEADER) Long userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(name = "from", required = false) Integer from,
-            @RequestParam(name = "size", required = false) Integer size) throws PageableException {
-        return bookingService.getAllByUserId(userId, state, LimitPageable.createPageable(from, size));
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "after", required = false) String after,
+            HttpServletResponse response) throws PageableException {
+        if (after == null) {
+            return bookingService.getAllByUserId(userId, state, LimitPageable.createPageable(from, size));
+        }
+        Pageable pageable = LimitPageable.createCursorPageable(size);
+        List<BookingDtoOut> bookings = bookingService.getAllByUserId(userId, state, PageCursor.decode(after),
+                pageable);
+        String nextCursor = PageCursor.nextToken(bookings, pageable,
+                booking -> new PageCursor(booking.getStart(), booking.getId()));
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return bookings;
     }
 
     @GetMapping("/owner")
@@ -55,8 +106,20 @@ public class BookingController {
             @RequestHeader(SHAREIT_HEADER) Long ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(name = "from", required = false) Integer from,
-            @RequestParam(name = "size", required = false) Integer size
-    ) throws PageableException {
-        return bookingService.getAllByOwnerId(ownerId, state, LimitPageable.createPageable(from, size));
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "after", required = false) String after,
+            HttpServletResponse response) throws PageableException {
+        if (after == null) {
+            return bookingService.getAllByOwnerId(ownerId, state, LimitPageable.createPageable(from, size));
+        }
+        Pageable pageable = LimitPageable.createCursorPageable(size);
+        List<BookingDtoOut> bookings = bookingService.getAllByOwnerId(ownerId, state, PageCursor.decode(after),
+                pageable);
+        String nextCursor = PageCursor.nextToken(bookings, pageable,
+                booking -> new PageCursor(booking.getStart(), booking.getId()));
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return bookings;
     }
 }
\ No newline at end of file
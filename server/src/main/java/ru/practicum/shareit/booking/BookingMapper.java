@@ -2,9 +2,14 @@ package ru.practicum.shareit.booking;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
+import ru.practicum.shareit.booking.storage.BookingStatsView;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
@@ -34,7 +39,7 @@ public class BookingMapper {
                 .build();
     }
 
-    public static BookingDtoOut toBookingDtoOut(Booking booking) {
+    public static BookingDtoOut toBookingDtoOut(BookingRecord booking) {
         return BookingDtoOut.builder()
                 .id(booking.getId())
                 .start(booking.getStartTime())
@@ -55,4 +60,37 @@ public class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
-}
\ No newline at end of file
+
+    public static ShortBookingDto toShortBook(BookingSnapshot booking, Long itemId) {
+        return ShortBookingDto.builder()
+                .id(booking.getBookingId())
+                .start(booking.getStartTime())
+                .end(booking.getEndTime())
+                .itemId(itemId)
+                .bookerId(booking.getBookerId())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static ShortBookingDto toShortBook(ItemBookingView booking) {
+        return ShortBookingDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .itemId(booking.getItemId())
+                .bookerId(booking.getBookerId())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static BookingStatsDto toBookingStatsDto(BookingStatsView stats) {
+        return BookingStatsDto.builder()
+                .all(stats.getTotal())
+                .current(stats.getCurrentCount())
+                .past(stats.getPastCount())
+                .future(stats.getFutureCount())
+                .waiting(stats.getWaitingCount())
+                .rejected(stats.getRejectedCount())
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final long horizonDays;
+    private final int batchSize;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archivedBookingRepository,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.booking.archive.horizon-days:90}") long horizonDays,
+                           @Value("${shareit.booking.archive.batch-size:1000}") int batchSize) {
+        if (horizonDays < 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Archive horizon must not be negative and batch size must be positive");
+        }
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        archived = Counter.builder("shareit.booking.archived")
+                .description("Finished bookings moved from the live table to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval-ms:3600000}",
+            initialDelayString = "${shareit.booking.archive.interval-ms:3600000}")
+    public void archiveFinished() {
+        LocalDateTime horizon = LocalDateTime.now().minusDays(horizonDays);
+        int total = 0;
+        int moved;
+        do {
+            moved = archiveBatch(horizon);
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Archived {} bookings finished before {}", total, horizon);
+        }
+    }
+
+    public int archiveBatch(LocalDateTime horizon) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.findIdsEndedBefore(horizon, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            archivedBookingRepository.copyFromLive(ids);
+            return bookingRepository.deleteAllByIdIn(ids);
+        });
+        int count = moved == null ? 0 : moved;
+        archived.increment(count);
+        return count;
+    }
+}
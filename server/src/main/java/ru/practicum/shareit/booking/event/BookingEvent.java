@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.Booking;
+
+@Getter
+@AllArgsConstructor
+public class BookingEvent {
+    private final BookingEventType type;
+    private final Long bookerId;
+    private final Long ownerId;
+    private final BookingDtoOut booking;
+
+    public static BookingEvent of(BookingEventType type, Booking booking) {
+        return new BookingEvent(type, booking.getBooker().getId(), booking.getItem().getOwner().getId(),
+                BookingMapper.toBookingDtoOut(booking));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class BookingEventStream {
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final long timeout;
+
+    public BookingEventStream(MeterRegistry meterRegistry,
+                              @Value("${shareit.booking.events.timeout:1800000}") long timeout) {
+        this.timeout = timeout;
+        Gauge.builder("shareit.booking.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open booking event streams")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        emitters.compute(userId, (id, list) -> {
+            List<SseEmitter> userEmitters = list == null ? new CopyOnWriteArrayList<>() : list;
+            userEmitters.add(emitter);
+            return userEmitters;
+        });
+        subscribers.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(userId, emitter));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        send(event.getBookerId(), event);
+        if (!Objects.equals(event.getBookerId(), event.getOwnerId())) {
+            send(event.getOwnerId(), event);
+        }
+    }
+
+    private void send(Long userId, BookingEvent event) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(event.getBooking().getId()))
+                        .name(event.getType().name().toLowerCase())
+                        .data(event.getBooking()));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping booking event stream of user {}: {}", userId, e.getMessage());
+                unsubscribe(userId, emitter);
+            }
+        }
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, list) -> {
+            if (list.remove(emitter)) {
+                subscribers.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory index of the blocking bookings of recently used items. Items are loaded from the database on
+ * first use and evicted least recently used first; bookings are pruned once they end. Inside a transaction
+ * an added booking is taken out again on rollback and a removed one only leaves after commit, so the index
+ * never accepts an overlap the database would not have.
+ */
+@Component
+public class BookingIntervalIndex {
+    private static final List<Status> BLOCKING_STATUSES = List.of(Status.WAITING, Status.APPROVED);
+    private static final int WRITE_STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+    private final int maxItems;
+    private final Map<Long, ItemBookings> items = new ConcurrentHashMap<>();
+    private final AtomicLongArray writes = new AtomicLongArray(WRITE_STRIPES);
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.index.max-items:10000}") int maxItems) {
+        if (maxItems <= 0) {
+            throw new IllegalArgumentException("Booking index size must be positive");
+        }
+        this.bookingRepository = bookingRepository;
+        this.maxItems = maxItems;
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return getItem(itemId).overlaps(start, end);
+    }
+
+    public boolean isBooked(Long itemId, long fromSlot, long toSlot) {
+        return getItem(itemId).isBooked(fromSlot, toSlot);
+    }
+
+    public void add(Booking booking) {
+        if (!BLOCKING_STATUSES.contains(booking.getStatus())) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        Interval interval = new Interval(booking.getId(), booking.getStartTime(), booking.getEndTime());
+        writes.incrementAndGet(stripe(itemId));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            getItem(itemId).add(interval);
+            return;
+        }
+        ItemBookings itemBookings = getItem(itemId);
+        itemBookings.reserve(interval);
+        while (items.get(itemId) != itemBookings) {
+            itemBookings.release(interval, false);
+            itemBookings = getItem(itemId);
+            itemBookings.reserve(interval);
+        }
+        ItemBookings reserved = itemBookings;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writes.incrementAndGet(stripe(itemId));
+                reserved.release(interval, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    public void remove(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(itemId, bookingId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(itemId, bookingId);
+            }
+        });
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    private void remove(Long itemId, long bookingId) {
+        writes.incrementAndGet(stripe(itemId));
+        ItemBookings itemBookings = items.get(itemId);
+        if (itemBookings != null) {
+            itemBookings.remove(bookingId);
+        }
+    }
+
+    private ItemBookings getItem(Long itemId) {
+        ItemBookings itemBookings = items.get(itemId);
+        if (itemBookings != null) {
+            itemBookings.lastAccess = System.nanoTime();
+            return itemBookings;
+        }
+        long version = writes.get(stripe(itemId));
+        ItemBookings loaded = load(itemId);
+        ItemBookings existing = items.putIfAbsent(itemId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (writes.get(stripe(itemId)) != version) {
+            // a write landed while the snapshot was read and may be missing from it; load again next time
+            items.remove(itemId, loaded);
+        } else if (items.size() > maxItems) {
+            evictEldest();
+        }
+        return loaded;
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), WRITE_STRIPES);
+    }
+
+    private ItemBookings load(Long itemId) {
+        ItemBookings itemBookings = new ItemBookings();
+        for (Booking booking : bookingRepository.findAllByItem_IdAndStatusInAndEndTimeAfter(itemId,
+                BLOCKING_STATUSES, LocalDateTime.now())) {
+            itemBookings.add(new Interval(booking.getId(), booking.getStartTime(), booking.getEndTime()));
+        }
+        return itemBookings;
+    }
+
+    private void evictEldest() {
+        Map.Entry<Long, ItemBookings> eldest = null;
+        for (Map.Entry<Long, ItemBookings> entry : items.entrySet()) {
+            if (!entry.getValue().hasReservations()
+                    && (eldest == null || entry.getValue().lastAccess < eldest.getValue().lastAccess)) {
+                eldest = entry;
+            }
+        }
+        if (eldest != null) {
+            items.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static class Interval {
+        private static final Comparator<Interval> BY_END = Comparator.<Interval, LocalDateTime>comparing(
+                interval -> interval.end).thenComparingLong(interval -> interval.bookingId);
+
+        private final long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static class ItemBookings {
+        private final BookingIntervalTree tree = new BookingIntervalTree();
+        private final BookingSlotBitmap slots = new BookingSlotBitmap();
+        private final Map<Long, Interval> byId = new HashMap<>();
+        private final NavigableSet<Interval> byEnd = new TreeSet<>(Interval.BY_END);
+        private int reservations;
+        private volatile long lastAccess = System.nanoTime();
+
+        private synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            prune();
+            return tree.overlaps(start, end);
+        }
+
+        private synchronized boolean isBooked(long fromSlot, long toSlot) {
+            prune();
+            if (slots.covers(fromSlot, toSlot)) {
+                return slots.isBooked(fromSlot, toSlot);
+            }
+            return tree.overlaps(BookingSlotBitmap.startOf(fromSlot), BookingSlotBitmap.startOf(toSlot));
+        }
+
+        private synchronized void add(Interval interval) {
+            if (byId.putIfAbsent(interval.bookingId, interval) == null) {
+                byEnd.add(interval);
+                tree.add(interval.bookingId, interval.start, interval.end);
+                slots.add(interval.bookingId, interval.start, interval.end);
+            }
+        }
+
+        private synchronized void reserve(Interval interval) {
+            reservations++;
+            add(interval);
+        }
+
+        private synchronized void release(Interval interval, boolean committed) {
+            reservations--;
+            if (!committed) {
+                remove(interval.bookingId);
+            }
+        }
+
+        private synchronized boolean hasReservations() {
+            return reservations > 0;
+        }
+
+        private synchronized void remove(long bookingId) {
+            Interval interval = byId.remove(bookingId);
+            if (interval != null) {
+                byEnd.remove(interval);
+                tree.remove(interval.bookingId, interval.start);
+                slots.remove(interval.bookingId);
+            }
+        }
+
+        private void prune() {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ended = new ArrayList<>();
+            while (!byEnd.isEmpty() && byEnd.first().end.isBefore(now)) {
+                Interval interval = byEnd.pollFirst();
+                byId.remove(interval.bookingId);
+                tree.remove(interval.bookingId, interval.start);
+                ended.add(interval.bookingId);
+            }
+            slots.removeAll(ended);
+        }
+    }
+}
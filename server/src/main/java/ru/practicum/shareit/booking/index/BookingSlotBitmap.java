@@ -0,0 +1,96 @@
+package ru.practicum.shareit.booking.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bitmap of booked one-hour slots of a single item. A slot is booked when any booking
+ * touches it; availability for coarser granularities is a range scan over the bits.
+ * The bitmap spans at most {@link #MAX_SLOTS} slots from the earliest booking; ranges
+ * past that window are not {@link #covers covered} and have to be answered elsewhere.
+ */
+public class BookingSlotBitmap {
+    public static final long SLOT_SECONDS = 3600;
+    public static final int MAX_SLOTS = 2 * 366 * 24;
+
+    private final Map<Long, long[]> slotsByBooking = new HashMap<>();
+    private BitSet booked = new BitSet();
+    private long origin = Long.MAX_VALUE;
+
+    public static long slotOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), SLOT_SECONDS);
+    }
+
+    public static LocalDateTime startOf(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * SLOT_SECONDS, 0, ZoneOffset.UTC);
+    }
+
+    public synchronized void add(long bookingId, LocalDateTime start, LocalDateTime end) {
+        long from = slotOf(start);
+        long to = Math.max(from + 1, Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC) + SLOT_SECONDS - 1,
+                SLOT_SECONDS));
+        slotsByBooking.put(bookingId, new long[]{from, to});
+        if (from < origin) {
+            rebuild();
+        } else {
+            mark(from, to);
+        }
+    }
+
+    public synchronized void remove(long bookingId) {
+        removeAll(List.of(bookingId));
+    }
+
+    /**
+     * Removes several bookings with a single rebuild; pruning ended bookings one by one would rebuild the
+     * bitmap once per booking.
+     */
+    public synchronized void removeAll(Collection<Long> bookingIds) {
+        boolean removed = false;
+        for (Long bookingId : bookingIds) {
+            removed |= slotsByBooking.remove(bookingId) != null;
+        }
+        if (removed) {
+            rebuild();
+        }
+    }
+
+    public synchronized boolean covers(long fromSlot, long toSlot) {
+        return origin == Long.MAX_VALUE || toSlot <= origin + MAX_SLOTS;
+    }
+
+    public synchronized boolean isBooked(long fromSlot, long toSlot) {
+        if (origin == Long.MAX_VALUE || toSlot <= origin) {
+            return false;
+        }
+        long from = Math.max(fromSlot, origin) - origin;
+        if (from >= MAX_SLOTS) {
+            return false;
+        }
+        int next = booked.nextSetBit((int) from);
+        return next >= 0 && next < toSlot - origin;
+    }
+
+    private void rebuild() {
+        origin = Long.MAX_VALUE;
+        for (long[] slots : slotsByBooking.values()) {
+            origin = Math.min(origin, slots[0]);
+        }
+        booked = new BitSet();
+        for (long[] slots : slotsByBooking.values()) {
+            mark(slots[0], slots[1]);
+        }
+    }
+
+    private void mark(long from, long to) {
+        long limit = Math.min(to, origin + MAX_SLOTS);
+        if (from < limit) {
+            booked.set((int) (from - origin), (int) (limit - origin));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@NoArgsConstructor
+@SuperBuilder
+@Entity
+@Table(name = "bookings_archive")
+public class ArchivedBooking extends BookingRecord {
+}
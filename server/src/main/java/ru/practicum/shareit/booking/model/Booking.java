@@ -1,33 +1,14 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.*;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
 
-import javax.persistence.*;
-import java.time.LocalDateTime;
+import javax.persistence.Entity;
+import javax.persistence.Table;
 
-@Getter
-@Setter
-@RequiredArgsConstructor
-@AllArgsConstructor
-@Builder
+@NoArgsConstructor
+@SuperBuilder
 @Entity
 @Table(name = "bookings")
-public class Booking {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-    @Column(name = "start_time")
-    private LocalDateTime startTime;
-    @Column(name = "end_time")
-    private LocalDateTime endTime;
-    @ManyToOne
-    @JoinColumn(name = "item_id")
-    private Item item;
-    @ManyToOne
-    @JoinColumn(name = "booker_id")
-    private User booker;
-    @Enumerated(EnumType.STRING)
-    private Status status;
-}
\ No newline at end of file
+public class Booking extends BookingRecord {
+}
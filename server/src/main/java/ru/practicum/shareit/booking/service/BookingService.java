@@ -2,27 +2,50 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ObjectUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingIntervalTree;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSummaryService;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.PageCursor;
 
 import javax.xml.bind.ValidationException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +53,11 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingLocks itemBookingLocks;
+    private final BookingEventStream bookingEventStream;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ItemSummaryService itemSummaryService;
 
     private boolean checkBooking(Booking booking) {
         if (Objects.equals(booking.getBooker().getId(), booking.getItem().getOwner().getId())) {
@@ -58,14 +86,81 @@ public class BookingService {
                         new NotFoundException("Item not found")));
         booking.setStatus(Status.WAITING);
         if (checkBooking(booking)) {
-            return BookingMapper.toBookingDtoOut(bookingRepository.save(booking));
+            return itemBookingLocks.withItemLock(booking.getItem().getId(), () -> {
+                if (bookingIntervalIndex.overlaps(booking.getItem().getId(), booking.getStartTime(),
+                        booking.getEndTime())) {
+                    throw new ConflictException("Item already booked for this time");
+                }
+                Booking saved = bookingRepository.save(booking);
+                bookingIntervalIndex.add(saved);
+                eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, saved));
+                return BookingMapper.toBookingDtoOut(saved);
+            });
         } else {
             throw new ValidationException("Validation error");
         }
     }
 
+    @Transactional
+    public List<BookingDtoOut> createBookings(List<BookingDto> bookingDtos, Long userId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User not found"));
+        Set<Long> itemIds = new HashSet<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            if (bookingDto.getItemId() == null || bookingDto.getStart() == null || bookingDto.getEnd() == null) {
+                throw new BadRequestException("Item id, start and end are required");
+            }
+            itemIds.add(bookingDto.getItemId());
+        }
+        Map<Long, Item> items = new HashMap<>();
+        for (Item item : itemRepository.findAllById(itemIds)) {
+            items.put(item.getId(), item);
+        }
+        Map<Long, List<Booking>> bookingsByItem = new LinkedHashMap<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Item not found");
+            }
+            Booking booking = BookingMapper.fromBookingDto(bookingDto, user, item);
+            booking.setId(null);
+            booking.setStatus(Status.WAITING);
+            checkBooking(booking);
+            bookingsByItem.computeIfAbsent(item.getId(), id -> new ArrayList<>()).add(booking);
+            bookings.add(booking);
+        }
+        for (Map.Entry<Long, List<Booking>> entry : bookingsByItem.entrySet()) {
+            itemBookingLocks.withItemLock(entry.getKey(), () -> {
+                BookingIntervalTree batch = new BookingIntervalTree();
+                long position = 0;
+                for (Booking booking : entry.getValue()) {
+                    if (bookingIntervalIndex.overlaps(entry.getKey(), booking.getStartTime(), booking.getEndTime())
+                            || batch.overlaps(booking.getStartTime(), booking.getEndTime())) {
+                        throw new ConflictException("Item already booked for this time");
+                    }
+                    batch.add(position++, booking.getStartTime(), booking.getEndTime());
+                }
+                for (Booking saved : bookingRepository.saveAll(entry.getValue())) {
+                    bookingIntervalIndex.add(saved);
+                }
+                return null;
+            });
+        }
+        bookingRepository.flush();
+        for (Booking booking : bookings) {
+            eventPublisher.publishEvent(BookingEvent.of(BookingEventType.CREATED, booking));
+        }
+        return toBookingDtoOutList(bookings);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("User with id " + userId + " not found"));
+        return bookingEventStream.subscribe(userId);
+    }
+
     public BookingDtoOut getBooking(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
+        BookingRecord booking = bookingRepository.findRecordById(bookingId).orElseThrow(() ->
                 new NotFoundException("Booking with id " + bookingId + " not found"));
         if (Objects.equals(booking.getBooker().getId(), userId)
                 || Objects.equals(booking.getItem().getOwner().getId(), userId)) {
@@ -75,17 +170,96 @@ public class BookingService {
         }
     }
 
+    @Transactional
     public BookingDtoOut approve(Long bookingId, Long userId, Boolean approved) {
+        int updated = bookingRepository.updateStatusIfWaiting(bookingId, userId,
+                approved ? Status.APPROVED : Status.REJECTED);
         Booking booking = bookingRepository.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Booking with id " + bookingId + " not found"));
-        if (booking.getStatus() != Status.WAITING) {
-            throw new BadRequestException("Already approve");
-        }
-        if (!Objects.equals(booking.getItem().getOwner().getId(), userId)) {
+        if (updated == 0) {
+            if (booking.getStatus() != Status.WAITING) {
+                throw new BadRequestException("Already approve");
+            }
             throw new NotFoundException("user not owner");
         }
-        booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return BookingMapper.toBookingDtoOut(bookingRepository.save(booking));
+        if (booking.getStatus() == Status.REJECTED) {
+            bookingIntervalIndex.remove(booking);
+        } else {
+            itemSummaryService.refreshBookings(List.of(booking.getItem().getId()));
+        }
+        eventPublisher.publishEvent(BookingEvent.of(booking.getStatus() == Status.APPROVED
+                ? BookingEventType.APPROVED : BookingEventType.REJECTED, booking));
+        return BookingMapper.toBookingDtoOut(booking);
+    }
+
+    @Transactional
+    public List<BookingDecisionResultDto> approveAll(List<BookingDecisionDto> decisions, Long userId) {
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+        for (BookingDecisionDto decision : decisions) {
+            if (decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new BadRequestException("Booking id and decision are required");
+            }
+            if (approvedById.putIfAbsent(decision.getBookingId(), decision.getApproved()) != null) {
+                throw new BadRequestException("Duplicate booking id " + decision.getBookingId());
+            }
+        }
+        if (approvedById.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllByIdInAndOwnerForUpdate(approvedById.keySet(), userId)) {
+            bookings.put(booking.getId(), booking);
+        }
+        List<Long> approveIds = new ArrayList<>();
+        List<Long> rejectIds = new ArrayList<>();
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> decision : approvedById.entrySet()) {
+            Booking booking = bookings.get(decision.getKey());
+            BookingDecisionResultDto result = BookingDecisionResultDto.builder()
+                    .bookingId(decision.getKey())
+                    .updated(false)
+                    .build();
+            if (booking == null) {
+                result.setError("Booking with id " + decision.getKey() + " not found");
+            } else if (booking.getStatus() != Status.WAITING) {
+                result.setStatus(booking.getStatus());
+                result.setError("Already approve");
+            } else {
+                result.setUpdated(true);
+                result.setStatus(decision.getValue() ? Status.APPROVED : Status.REJECTED);
+                if (decision.getValue()) {
+                    approveIds.add(decision.getKey());
+                } else {
+                    rejectIds.add(decision.getKey());
+                }
+            }
+            results.add(result);
+        }
+        if (!approveIds.isEmpty()) {
+            bookingRepository.updateStatusIfWaiting(approveIds, userId, Status.APPROVED);
+        }
+        if (!rejectIds.isEmpty()) {
+            bookingRepository.updateStatusIfWaiting(rejectIds, userId, Status.REJECTED);
+            for (Long bookingId : rejectIds) {
+                bookingIntervalIndex.remove(bookings.get(bookingId));
+            }
+        }
+        Set<Long> approvedItemIds = new HashSet<>();
+        for (Long bookingId : approveIds) {
+            approvedItemIds.add(bookings.get(bookingId).getItem().getId());
+        }
+        itemSummaryService.refreshBookings(approvedItemIds);
+        for (Long bookingId : approveIds) {
+            Booking booking = bookings.get(bookingId);
+            booking.setStatus(Status.APPROVED);
+            eventPublisher.publishEvent(BookingEvent.of(BookingEventType.APPROVED, booking));
+        }
+        for (Long bookingId : rejectIds) {
+            Booking booking = bookings.get(bookingId);
+            booking.setStatus(Status.REJECTED);
+            eventPublisher.publishEvent(BookingEvent.of(BookingEventType.REJECTED, booking));
+        }
+        return results;
     }
 
     public List<BookingDtoOut> getAllByUserId(Long userId, String state, Pageable pageable) {
@@ -94,18 +268,28 @@ public class BookingService {
         }
         userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("User with id " + userId + " not found"));
-        List<Booking> bookingList;
-        if (pageable == null) {
-            bookingList = bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(userId);
-        } else {
-            bookingList = bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(userId, pageable).toList();
+        List<? extends BookingRecord> bookingList = getBookerBookingsByState(userId, State.valueOf(state),
+                pageable == null ? Pageable.unpaged() : pageable);
+        return toBookingDtoOutList(bookingList);
+    }
+
+    public List<BookingDtoOut> getAllByUserId(Long userId, String state, PageCursor after, Pageable pageable) {
+        if (!ObjectUtils.containsConstant(State.values(), state)) {
+            throw new BadRequestException("Unknown state: " + state);
         }
-        bookingList = getBookingByState(State.valueOf(state), bookingList);
-        List<BookingDtoOut> bookingDtoList = new ArrayList<>();
-        for (Booking booking : bookingList) {
-            bookingDtoList.add(BookingMapper.toBookingDtoOut(booking));
+        userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("User with id " + userId + " not found"));
+        List<? extends BookingRecord> bookingList;
+        if (after == null) {
+            bookingList = getBookerBookingsByState(userId, State.valueOf(state),
+                    PageRequest.of(0, pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "id")));
+        } else {
+            if (after.getSortKey() == null) {
+                throw new BadRequestException("Incorrect cursor");
+            }
+            bookingList = getBookerBookingsByStateAfter(userId, State.valueOf(state), after, pageable);
         }
-        return bookingDtoList;
+        return toBookingDtoOutList(bookingList);
     }
 
     public List<BookingDtoOut> getAllByOwnerId(Long ownerId, String state, Pageable pageable) {
@@ -114,43 +298,130 @@ public class BookingService {
         if (!ObjectUtils.containsConstant(State.values(), state)) {
             throw new BadRequestException("Unknown state: " + state);
         }
-        List<Booking> bookingList;
-        if (pageable == null) {
-            bookingList = bookingRepository.findByItem_Owner_IdOrderByIdDesc(ownerId);
-        } else {
-            bookingList = bookingRepository.findByItem_Owner_IdOrderByIdDesc(ownerId, pageable).toList();
+        List<? extends BookingRecord> bookingList = getOwnerBookingsByState(ownerId, State.valueOf(state),
+                pageable == null ? Pageable.unpaged() : pageable);
+        return toBookingDtoOutList(bookingList);
+    }
+
+    public List<BookingDtoOut> getAllByOwnerId(Long ownerId, String state, PageCursor after, Pageable pageable) {
+        userRepository.findById(ownerId).orElseThrow(() ->
+                new NotFoundException("User with id " + ownerId + " not found"));
+        if (!ObjectUtils.containsConstant(State.values(), state)) {
+            throw new BadRequestException("Unknown state: " + state);
         }
-        bookingList = getBookingByState(State.valueOf(state), bookingList);
+        Long afterId = after == null ? Long.MAX_VALUE : after.getId();
+        return toBookingDtoOutList(getOwnerBookingsByStateAfter(ownerId, State.valueOf(state), afterId, pageable));
+    }
+
+    public BookingStatsDto getStatsByUserId(Long userId) {
+        userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("User with id " + userId + " not found"));
+        return BookingMapper.toBookingStatsDto(bookingRepository.countByBookerGroupedByState(userId,
+                LocalDateTime.now()));
+    }
+
+    public BookingStatsDto getStatsByOwnerId(Long ownerId) {
+        userRepository.findById(ownerId).orElseThrow(() ->
+                new NotFoundException("User with id " + ownerId + " not found"));
+        return BookingMapper.toBookingStatsDto(bookingRepository.countByOwnerGroupedByState(ownerId,
+                LocalDateTime.now()));
+    }
+
+    private List<BookingDtoOut> toBookingDtoOutList(List<? extends BookingRecord> bookings) {
         List<BookingDtoOut> bookingDtoList = new ArrayList<>();
-        for (Booking booking : bookingList) {
+        for (BookingRecord booking : bookings) {
             bookingDtoList.add(BookingMapper.toBookingDtoOut(booking));
         }
         return bookingDtoList;
     }
 
-    private List<Booking> getBookingByState(State state, List<Booking> bookings) {
+    private List<? extends BookingRecord> getBookerBookingsByState(Long userId, State state, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(userId, pageable);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findAllByBooker_IdAndStatusOrderByStartTimeDesc(userId,
+                        Status.valueOf(state.toString()), pageable);
+            case PAST:
+                return bookingRepository.findAllByBooker_IdAndEndTimeBeforeOrderByStartTimeDesc(userId, now,
+                        pageable);
+            case FUTURE:
+                return bookingRepository.findAllByBooker_IdAndStartTimeAfterOrderByStartTimeDesc(userId, now,
+                        pageable);
+            case CURRENT:
+                return bookingRepository.findAllByBooker_IdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(
+                        userId, now, now, pageable);
+            default:
+                throw new BadRequestException("Unknown state: " + state);
+        }
+    }
+
+    private List<? extends BookingRecord> getOwnerBookingsByState(Long ownerId, State state, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return bookingRepository.findByItem_Owner_IdOrderByIdDesc(ownerId, pageable);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findByItem_Owner_IdAndStatusOrderByIdDesc(ownerId,
+                        Status.valueOf(state.toString()), pageable);
+            case PAST:
+                return bookingRepository.findByItem_Owner_IdAndEndTimeBeforeOrderByIdDesc(ownerId, now, pageable);
+            case FUTURE:
+                return bookingRepository.findByItem_Owner_IdAndStartTimeAfterOrderByIdDesc(ownerId, now, pageable);
+            case CURRENT:
+                return bookingRepository.findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterOrderByIdDesc(ownerId,
+                        now, now, pageable);
+            default:
+                throw new BadRequestException("Unknown state: " + state);
+        }
+    }
+
+    private List<? extends BookingRecord> getBookerBookingsByStateAfter(Long userId, State state, PageCursor after,
+                                                                        Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case ALL:
+                return bookingRepository.findAllByBookerAfter(userId, after.getSortKey(), after.getId(), pageable);
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findByBookerAndStatusAfter(userId, Status.valueOf(state.toString()),
+                        after.getSortKey(), after.getId(), pageable);
+            case PAST:
+                return bookingRepository.findPastByBookerAfter(userId, now, after.getSortKey(), after.getId(),
+                        pageable);
+            case FUTURE:
+                return bookingRepository.findFutureByBookerAfter(userId, now, after.getSortKey(), after.getId(),
+                        pageable);
+            case CURRENT:
+                return bookingRepository.findCurrentByBookerAfter(userId, now, after.getSortKey(), after.getId(),
+                        pageable);
+            default:
+                throw new BadRequestException("Unknown state: " + state);
+        }
+    }
+
+    private List<? extends BookingRecord> getOwnerBookingsByStateAfter(Long ownerId, State state, Long afterId,
+                                                                       Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
         switch (state) {
             case ALL:
-                return bookings;
+                return bookingRepository.findByItem_Owner_IdAndIdLessThanOrderByIdDesc(ownerId, afterId, pageable);
             case WAITING:
             case REJECTED:
-                Status status = Status.valueOf(state.toString());
-                return bookings.stream()
-                        .filter(booking -> booking.getStatus().equals(status))
-                        .collect(Collectors.toList());
+                return bookingRepository.findByItem_Owner_IdAndStatusAndIdLessThanOrderByIdDesc(ownerId,
+                        Status.valueOf(state.toString()), afterId, pageable);
             case PAST:
-                return bookings.stream()
-                        .filter(booking -> LocalDateTime.now().isAfter(booking.getEndTime()))
-                        .collect(Collectors.toList());
+                return bookingRepository.findByItem_Owner_IdAndEndTimeBeforeAndIdLessThanOrderByIdDesc(ownerId, now,
+                        afterId, pageable);
             case FUTURE:
-                return bookings.stream()
-                        .filter(booking -> LocalDateTime.now().isBefore(booking.getStartTime()))
-                        .collect(Collectors.toList());
+                return bookingRepository.findByItem_Owner_IdAndStartTimeAfterAndIdLessThanOrderByIdDesc(ownerId, now,
+                        afterId, pageable);
             case CURRENT:
-                return bookings.stream()
-                        .filter(booking -> LocalDateTime.now().isAfter(booking.getStartTime())
-                                && LocalDateTime.now().isBefore(booking.getEndTime()))
-                        .collect(Collectors.toList());
+                return bookingRepository.findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterAndIdLessThanOrderByIdDesc(
+                        ownerId, now, now, afterId, pageable);
             default:
                 throw new BadRequestException("Unknown state: " + state);
         }
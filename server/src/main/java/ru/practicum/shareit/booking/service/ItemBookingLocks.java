@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+    private final Counter contended;
+    private final Timer waitTimer;
+
+    public ItemBookingLocks(MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.lock-stripes:64}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Lock stripe count must be positive");
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        contended = Counter.builder("shareit.booking.item.lock.contended")
+                .description("Booking creations that had to wait for another booking of the same lock stripe")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("shareit.booking.item.lock.wait")
+                .description("Time spent waiting for a contended item booking lock")
+                .register(meterRegistry);
+    }
+
+    public <T> T withItemLock(Long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(itemId), stripes.length)];
+        if (!lock.tryLock()) {
+            contended.increment();
+            long startNanos = System.nanoTime();
+            lock.lock();
+            waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, start_time, end_time, item_id, booker_id, status, version) " +
+            "SELECT id, start_time, end_time, item_id, booker_id, status, version FROM bookings " +
+            "WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromLive(@Param("ids") Collection<Long> ids);
+
+    boolean existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(Long bookerId, Long itemId, Status status,
+                                                                 LocalDateTime end);
+
+    Optional<ArchivedBooking> findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(Long itemId,
+                                                                                                    Status status,
+                                                                                                    LocalDateTime now);
+
+    @Query(value = "SELECT b.id AS \"id\", b.start_time AS \"start\", b.end_time AS \"end\", " +
+            "b.item_id AS \"itemId\", b.booker_id AS \"bookerId\", b.status AS \"status\" " +
+            "FROM bookings_archive b WHERE b.id IN (SELECT (SELECT l.id FROM bookings_archive l " +
+            "WHERE l.item_id = i.id AND l.status = 'APPROVED' AND l.start_time < :now " +
+            "ORDER BY l.start_time DESC, l.id DESC FETCH FIRST 1 ROWS ONLY) " +
+            "FROM items i WHERE i.id IN (:itemIds))", nativeQuery = true)
+    List<ItemBookingView> findLastApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+}
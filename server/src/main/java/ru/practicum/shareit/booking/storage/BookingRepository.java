@@ -1,25 +1,217 @@
 package ru.practicum.shareit.booking.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
+import ru.practicum.shareit.booking.model.Status;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBooker_IdAndEndTimeBefore(Long bookerId, LocalDateTime end);
+    boolean existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(Long bookerId, Long itemId, Status status,
+                                                                 LocalDateTime end);
 
-    Page<Booking> findByItem_Owner_IdOrderByIdDesc(Long ownerId, Pageable pageable);
+    @Query("SELECT b FROM BookingRecord b WHERE b.id = :id")
+    Optional<BookingRecord> findRecordById(@Param("id") Long id);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdOrderByIdDesc(@Param("ownerId") Long ownerId, Pageable pageable);
 
     List<Booking> findByItem_Owner_IdOrderByIdDesc(Long ownerId);
 
-    Page<Booking> findAllByBooker_IdOrderByStartTimeDesc(Long userId, Pageable pageable);
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :userId ORDER BY b.startTime DESC")
+    List<BookingRecord> findAllByBooker_IdOrderByStartTimeDesc(@Param("userId") Long userId, Pageable pageable);
 
     List<Booking> findAllByBooker_IdOrderByStartTimeDesc(Long userId);
 
-    Booking getFirstByItemIdOrderByStartTimeAsc(Long itemId);
+    List<Booking> findAllByBooker_IdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(Long userId,
+                                                                                        LocalDateTime start,
+                                                                                        LocalDateTime end,
+                                                                                        Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :userId AND b.endTime < :end " +
+            "ORDER BY b.startTime DESC")
+    List<BookingRecord> findAllByBooker_IdAndEndTimeBeforeOrderByStartTimeDesc(@Param("userId") Long userId,
+                                                                              @Param("end") LocalDateTime end,
+                                                                              Pageable pageable);
+
+    List<Booking> findAllByBooker_IdAndStartTimeAfterOrderByStartTimeDesc(Long userId, LocalDateTime start,
+                                                                         Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :userId AND b.status = :status " +
+            "ORDER BY b.startTime DESC")
+    List<BookingRecord> findAllByBooker_IdAndStatusOrderByStartTimeDesc(@Param("userId") Long userId,
+                                                                       @Param("status") Status status,
+                                                                       Pageable pageable);
+
+    List<Booking> findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterOrderByIdDesc(Long ownerId,
+                                                                                  LocalDateTime start,
+                                                                                  LocalDateTime end,
+                                                                                  Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId AND b.endTime < :end " +
+            "ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdAndEndTimeBeforeOrderByIdDesc(@Param("ownerId") Long ownerId,
+                                                                        @Param("end") LocalDateTime end,
+                                                                        Pageable pageable);
+
+    List<Booking> findByItem_Owner_IdAndStartTimeAfterOrderByIdDesc(Long ownerId, LocalDateTime start,
+                                                                   Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId AND b.status = :status " +
+            "ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdAndStatusOrderByIdDesc(@Param("ownerId") Long ownerId,
+                                                                 @Param("status") Status status,
+                                                                 Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :bookerId " +
+            "AND (b.startTime < :start OR (b.startTime = :start AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<BookingRecord> findAllByBookerAfter(@Param("bookerId") Long bookerId, @Param("start") LocalDateTime start,
+                                             @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.startTime < :now AND b.endTime > :now " +
+            "AND (b.startTime < :start OR (b.startTime = :start AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<Booking> findCurrentByBookerAfter(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                           @Param("start") LocalDateTime start, @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :bookerId AND b.endTime < :now " +
+            "AND (b.startTime < :start OR (b.startTime = :start AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<BookingRecord> findPastByBookerAfter(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                              @Param("start") LocalDateTime start, @Param("id") Long id,
+                                              Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.startTime > :now " +
+            "AND (b.startTime < :start OR (b.startTime = :start AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<Booking> findFutureByBookerAfter(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now,
+                                          @Param("start") LocalDateTime start, @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.booker.id = :bookerId AND b.status = :status " +
+            "AND (b.startTime < :start OR (b.startTime = :start AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<BookingRecord> findByBookerAndStatusAfter(@Param("bookerId") Long bookerId, @Param("status") Status status,
+                                                   @Param("start") LocalDateTime start, @Param("id") Long id,
+                                                   Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId AND b.id < :id ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdAndIdLessThanOrderByIdDesc(@Param("ownerId") Long ownerId,
+                                                                     @Param("id") Long id, Pageable pageable);
+
+    List<Booking> findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterAndIdLessThanOrderByIdDesc(Long ownerId,
+                                                                                              LocalDateTime start,
+                                                                                              LocalDateTime end,
+                                                                                              Long id,
+                                                                                              Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId AND b.endTime < :end " +
+            "AND b.id < :id ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdAndEndTimeBeforeAndIdLessThanOrderByIdDesc(@Param("ownerId") Long ownerId,
+                                                                                     @Param("end") LocalDateTime end,
+                                                                                     @Param("id") Long id,
+                                                                                     Pageable pageable);
+
+    List<Booking> findByItem_Owner_IdAndStartTimeAfterAndIdLessThanOrderByIdDesc(Long ownerId, LocalDateTime start,
+                                                                                Long id, Pageable pageable);
+
+    @Query("SELECT b FROM BookingRecord b WHERE b.item.owner.id = :ownerId AND b.status = :status " +
+            "AND b.id < :id ORDER BY b.id DESC")
+    List<BookingRecord> findByItem_Owner_IdAndStatusAndIdLessThanOrderByIdDesc(@Param("ownerId") Long ownerId,
+                                                                              @Param("status") Status status,
+                                                                              @Param("id") Long id,
+                                                                              Pageable pageable);
+
+    @Query(value = "SELECT b.id AS \"id\", b.start_time AS \"start\", b.end_time AS \"end\", " +
+            "b.item_id AS \"itemId\", b.booker_id AS \"bookerId\", b.status AS \"status\" " +
+            "FROM bookings b WHERE b.id IN (SELECT (SELECT l.id FROM bookings l " +
+            "WHERE l.item_id = i.id AND l.status = 'APPROVED' AND l.start_time < :now " +
+            "ORDER BY l.start_time DESC, l.id DESC FETCH FIRST 1 ROWS ONLY) " +
+            "FROM items i WHERE i.id IN (:itemIds))", nativeQuery = true)
+    List<ItemBookingView> findLastApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT b.id AS \"id\", b.start_time AS \"start\", b.end_time AS \"end\", " +
+            "b.item_id AS \"itemId\", b.booker_id AS \"bookerId\", b.status AS \"status\" " +
+            "FROM bookings b WHERE b.id IN (SELECT (SELECT n.id FROM bookings n " +
+            "WHERE n.item_id = i.id AND n.status = 'APPROVED' AND n.start_time > :now " +
+            "ORDER BY n.start_time, n.id FETCH FIRST 1 ROWS ONLY) " +
+            "FROM items i WHERE i.id IN (:itemIds))", nativeQuery = true)
+    List<ItemBookingView> findNextApprovedByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                    @Param("now") LocalDateTime now);
+
+    List<Booking> findAllByItem_IdAndStatusInAndEndTimeAfter(Long itemId, Collection<Status> statuses,
+                                                             LocalDateTime end);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId AND b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateStatusIfWaiting(@Param("bookingId") Long bookingId, @Param("ownerId") Long ownerId,
+                              @Param("status") Status status);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :bookingIds AND b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateStatusIfWaiting(@Param("bookingIds") Collection<Long> bookingIds, @Param("ownerId") Long ownerId,
+                              @Param("status") Status status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker " +
+            "WHERE b.id IN :bookingIds AND i.owner.id = :ownerId")
+    List<Booking> findAllByIdInAndOwnerForUpdate(@Param("bookingIds") Collection<Long> bookingIds,
+                                                 @Param("ownerId") Long ownerId);
+
+    @Query("SELECT COUNT(b) AS total, " +
+            "COALESCE(SUM(CASE WHEN b.startTime < :now AND b.endTime > :now THEN 1 ELSE 0 END), 0) AS currentCount, " +
+            "COALESCE(SUM(CASE WHEN b.endTime < :now THEN 1 ELSE 0 END), 0) AS pastCount, " +
+            "COALESCE(SUM(CASE WHEN b.startTime > :now THEN 1 ELSE 0 END), 0) AS futureCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "THEN 1 ELSE 0 END), 0) AS waitingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.REJECTED " +
+            "THEN 1 ELSE 0 END), 0) AS rejectedCount " +
+            "FROM BookingRecord b WHERE b.booker.id = :bookerId")
+    BookingStatsView countByBookerGroupedByState(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(b) AS total, " +
+            "COALESCE(SUM(CASE WHEN b.startTime < :now AND b.endTime > :now THEN 1 ELSE 0 END), 0) AS currentCount, " +
+            "COALESCE(SUM(CASE WHEN b.endTime < :now THEN 1 ELSE 0 END), 0) AS pastCount, " +
+            "COALESCE(SUM(CASE WHEN b.startTime > :now THEN 1 ELSE 0 END), 0) AS futureCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.WAITING " +
+            "THEN 1 ELSE 0 END), 0) AS waitingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.Status.REJECTED " +
+            "THEN 1 ELSE 0 END), 0) AS rejectedCount " +
+            "FROM BookingRecord b WHERE b.item.owner.id = :ownerId")
+    BookingStatsView countByOwnerGroupedByState(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.endTime < :horizon ORDER BY b.id")
+    List<Long> findIdsEndedBefore(@Param("horizon") LocalDateTime horizon, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    Optional<Booking> findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(Long itemId,
+                                                                                            Status status,
+                                                                                            LocalDateTime now);
 
-    Booking getFirstByItemIdOrderByEndTimeDesc(Long itemId);
-}
\ No newline at end of file
+    Optional<Booking> findFirstByItem_IdAndStatusAndStartTimeAfterOrderByStartTimeAscIdAsc(Long itemId,
+                                                                                          Status status,
+                                                                                          LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.storage;
+
+public interface BookingStatsView {
+    Long getTotal();
+
+    Long getCurrentCount();
+
+    Long getPastCount();
+
+    Long getFutureCount();
+
+    Long getWaitingCount();
+
+    Long getRejectedCount();
+}
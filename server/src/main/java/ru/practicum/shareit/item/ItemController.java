@@ -1,15 +1,31 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.exception.PageableException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static ru.practicum.shareit.util.HeaderConst.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 
 @RestController
@@ -17,8 +33,12 @@ import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 public class ItemController {
     private final ItemService itemService;
 
-    public ItemController(@Qualifier("dataBaseService") ItemService itemService) {
+    private final ItemImportService itemImportService;
+
+    public ItemController(@Qualifier("dataBaseService") ItemService itemService,
+                          ItemImportService itemImportService) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
     }
 
     @PostMapping
@@ -27,26 +47,85 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ItemImportFormat.CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> importItems(@RequestHeader(SHAREIT_HEADER) long userId,
+                                                           @RequestHeader(HttpHeaders.CONTENT_TYPE)
+                                                           MediaType contentType,
+                                                           HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(itemImportService.importItems(userId, ItemImportFormat.of(contentType),
+                        request.getInputStream()));
+    }
+
     @GetMapping("{id}")
     public ItemDto getItem(@RequestHeader(SHAREIT_HEADER) long userId,
                            @PathVariable long id) {
         return itemService.getItemById(id, userId);
     }
 
+    @GetMapping("{id}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable long id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to,
+                                               @RequestParam(defaultValue = "HOUR") String granularity) {
+        return itemService.getAvailability(id, from, to, granularity);
+    }
+
     @GetMapping
     public List<ItemDto> getAllUserItems(@RequestHeader(SHAREIT_HEADER) Long userId,
                                          @RequestParam(name = "from", required = false) Integer from,
-                                         @RequestParam(name = "size", required = false) Integer size) throws PageableException {
-        return itemService.getAllItemsByUserId(userId, LimitPageable.createPageable(from, size));
+                                         @RequestParam(name = "size", required = false) Integer size,
+                                         @RequestParam(name = "after", required = false) String after,
+                                         HttpServletResponse response) throws PageableException {
+        if (after == null) {
+            return itemService.getAllItemsByUserId(userId, LimitPageable.createPageable(from, size));
+        }
+        Pageable pageable = LimitPageable.createCursorPageable(size);
+        List<ItemDto> items = itemService.getAllItemsByUserId(userId, PageCursor.decode(after), pageable);
+        String nextCursor = PageCursor.nextToken(items, pageable, item -> PageCursor.ofId(item.getId()));
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return items;
     }
 
     @GetMapping("/search")
     public List<ItemDto> searchItems(@RequestParam(name = "text", defaultValue = "") String word,
                                      @RequestParam(name = "from", required = false) Integer from,
-                                     @RequestParam(name = "size", required = false) Integer size) throws PageableException {
+                                     @RequestParam(name = "size", required = false) Integer size,
+                                     @RequestParam(name = "start", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam(name = "end", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+                                     @RequestParam(name = "minSimilarity", required = false) Double minSimilarity)
+            throws PageableException {
+        if (minSimilarity != null) {
+            return itemService.searchItems(word, minSimilarity, LimitPageable.createPageable(from, size));
+        }
+        if (start != null || end != null) {
+            return itemService.searchItems(word, start, end, LimitPageable.createPageable(from, size));
+        }
         return itemService.searchItems(word, LimitPageable.createPageable(from, size));
     }
 
+    @GetMapping("/search/faceted")
+    public ItemSearchResultDto searchItemsWithFacets(@RequestParam(name = "text", defaultValue = "") String word,
+                                                     @RequestParam(name = "from", required = false) Integer from,
+                                                     @RequestParam(name = "size", required = false) Integer size)
+            throws PageableException {
+        return itemService.searchItemsWithFacets(word, LimitPageable.createPageable(from, size));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggestNames(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                     @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.suggestNames(prefix, size);
+    }
+
     @PatchMapping("{id}")
     public ItemDto updateItem(@RequestHeader(SHAREIT_HEADER) Long userId,
                               @RequestBody ItemDto itemDto, @PathVariable long id) {
@@ -54,6 +133,21 @@ public class ItemController {
     }
 
 
+    @GetMapping("{itemId}/comments")
+    public List<CommentDto> getComments(@PathVariable Long itemId,
+                                        @RequestParam(name = "after", required = false) String after,
+                                        @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                        HttpServletResponse response) throws PageableException {
+        Pageable pageable = LimitPageable.createCursorPageable(size);
+        List<CommentDto> comments = itemService.getComments(itemId, PageCursor.decode(after), pageable);
+        String nextCursor = PageCursor.nextToken(comments, pageable,
+                comment -> new PageCursor(comment.getCreated().atStartOfDay(), comment.getId()));
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return comments;
+    }
+
     @PostMapping("{itemId}/comment")
     public CommentDto createComment(@RequestHeader(SHAREIT_HEADER) Long userId,
                                     @RequestBody CommentDto commentDto,
@@ -1,7 +1,14 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemFacetView;
+import ru.practicum.shareit.item.storage.OwnerFacetView;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class ItemMapper {
 
@@ -29,4 +36,16 @@ public class ItemMapper {
                 .available(itemDto.getAvailable())
                 .build();
     }
-}
\ No newline at end of file
+
+    public static ItemSearchFacetsDto toItemSearchFacetsDto(ItemFacetView facets, List<OwnerFacetView> owners) {
+        return ItemSearchFacetsDto.builder()
+                .total(facets.getTotal())
+                .available(facets.getAvailable())
+                .unavailable(facets.getTotal() - facets.getAvailable())
+                .withRequest(facets.getRequested())
+                .owners(owners.stream()
+                        .map(owner -> new OwnerFacetDto(owner.getOwner(), owner.getTotal()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
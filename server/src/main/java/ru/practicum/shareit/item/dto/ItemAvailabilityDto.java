@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
+
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Builder
+public class ItemAvailabilityDto {
+    private Long itemId;
+    private AvailabilityGranularity granularity;
+    private List<AvailabilitySlotDto> slots;
+}
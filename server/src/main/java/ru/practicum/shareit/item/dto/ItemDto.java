@@ -4,7 +4,7 @@ package ru.practicum.shareit.item.dto;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.ShortBookingDto;
-import java.util.Set;
+import java.util.List;
 
 @Data
 @Builder
@@ -13,7 +13,7 @@ public class ItemDto {
     private String name;
     private String description;
     private Boolean available;
-    private Set<CommentDto> comments;
+    private List<CommentDto> comments;
     private ShortBookingDto lastBooking;
     private ShortBookingDto nextBooking;
     private Long requestId;
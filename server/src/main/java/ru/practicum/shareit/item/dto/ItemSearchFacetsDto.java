@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Builder
+public class ItemSearchFacetsDto {
+    private Long total;
+    private Long available;
+    private Long unavailable;
+    private Long withRequest;
+    private List<OwnerFacetDto> owners;
+}
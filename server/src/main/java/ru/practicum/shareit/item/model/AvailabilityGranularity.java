@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model;
+
+public enum AvailabilityGranularity {
+    HOUR(1), DAY(24);
+
+    private final int slots;
+
+    AvailabilityGranularity(int slots) {
+        this.slots = slots;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import ru.practicum.shareit.booking.model.Status;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Embeddable
+public class BookingSnapshot {
+    @Column(name = "booking_id")
+    private Long bookingId;
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+    @Column(name = "end_time")
+    private LocalDateTime endTime;
+    @Column(name = "booker_id")
+    private Long bookerId;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.model;
+
+import org.springframework.http.MediaType;
+
+public enum ItemImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String CSV_VALUE = "text/csv";
+
+    public static ItemImportFormat of(MediaType contentType) {
+        if (MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            return NDJSON;
+        }
+        if (MediaType.valueOf(CSV_VALUE).includes(contentType)) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType);
+    }
+}
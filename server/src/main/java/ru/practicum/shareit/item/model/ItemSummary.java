@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import ru.practicum.shareit.util.LongListConverter;
+
+import javax.persistence.*;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Entity
+@DynamicUpdate
+@Table(name = "item_summary")
+public class ItemSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "startTime", column = @Column(name = "last_booking_start")),
+            @AttributeOverride(name = "endTime", column = @Column(name = "last_booking_end")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "status", column = @Column(name = "last_booking_status"))
+    })
+    private BookingSnapshot lastBooking;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "startTime", column = @Column(name = "next_booking_start")),
+            @AttributeOverride(name = "endTime", column = @Column(name = "next_booking_end")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "status", column = @Column(name = "next_booking_status"))
+    })
+    private BookingSnapshot nextBooking;
+    @Column(name = "comment_count")
+    private long commentCount;
+    @Convert(converter = LongListConverter.class)
+    @Column(name = "latest_comment_ids")
+    @Builder.Default
+    private List<Long> latestCommentIds = new ArrayList<>();
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the items' full-text vector; enabled with shareit.search.engine=fulltext. Every query word matches
+ * as a prefix of a whole word, so "dri" finds "drill" but "rill" does not. The default "like" engine keeps
+ * substring matching and is backed by trigram indexes on Postgres.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "fulltext")
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        String query = toPrefixQuery(text);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return itemRepository.findByFullText(query, pageable);
+    }
+
+    @Override
+    public ItemSearchFacetsDto facets(String text) {
+        String query = toPrefixQuery(text);
+        if (query.isEmpty()) {
+            return new ItemSearchFacetsDto(0L, 0L, 0L, 0L, new ArrayList<>());
+        }
+        return ItemMapper.toItemSearchFacetsDto(itemRepository.countFacetsByFullText(query),
+                itemRepository.countOwnersByFullText(query, PageRequest.of(0, OWNER_FACETS)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> searchSimilar(String text, double minSimilarity, Pageable pageable) {
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+        itemRepository.setWordSimilarityThreshold(String.valueOf(minSimilarity));
+        return itemRepository.findBySimilarity(text, pageable);
+    }
+
+    static String toPrefixQuery(String text) {
+        return ItemTextTokenizer.tokenize(text).stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,286 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps an in-process inverted index of item words. Like the full-text engine, every query word matches as a
+ * prefix of a whole word, so "dri" finds "drill" but "rill" does not; the "like" engine keeps substring matching.
+ * Callers index an item only after its transaction commits.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "inverted")
+public class InvertedIndexItemSearchEngine implements ItemSearchEngine {
+    private static final int BOOTSTRAP_BATCH_SIZE = 1000;
+    // trigrams found in more than this share of a large index say little about similarity and are not counted
+    private static final double MAX_TRIGRAM_SHARE = 0.5;
+    private static final int MIN_ITEMS_TO_SKIP_TRIGRAMS = 1000;
+
+    private final ItemRepository itemRepository;
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    private final Map<Long, Set<String>> nameTermsByItem = new HashMap<>();
+    private final Map<Long, Set<String>> descriptionTermsByItem = new HashMap<>();
+    private final Map<String, PostingList> nameTrigrams = new HashMap<>();
+    private final Map<String, PostingList> descriptionTrigrams = new HashMap<>();
+    private final Map<Long, Long> ownerByItem = new HashMap<>();
+    private final BitSet available = new BitSet();
+    private final BitSet requested = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InvertedIndexItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        Pageable pageable = PageRequest.of(0, BOOTSTRAP_BATCH_SIZE, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = itemRepository.findAll(pageable);
+            page.forEach(this::index);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        log.info("Item search index built for {} items", termsByItem.size());
+    }
+
+    @Override
+    public void index(Item item) {
+        long id = item.getId();
+        Set<String> nameTerms = new HashSet<>(ItemTextTokenizer.tokenize(item.getName()));
+        Set<String> descriptionTerms = new HashSet<>(ItemTextTokenizer.tokenize(item.getDescription()));
+        Set<String> terms = new HashSet<>(nameTerms);
+        terms.addAll(descriptionTerms);
+        lock.writeLock().lock();
+        try {
+            Set<String> previousNameTerms = nameTermsByItem.getOrDefault(id, Set.of());
+            Set<String> previousDescriptionTerms = descriptionTermsByItem.getOrDefault(id, Set.of());
+            reindex(postings, id, termsByItem.getOrDefault(id, Set.of()), terms);
+            reindex(nameTrigrams, id, ItemTextTokenizer.trigrams(previousNameTerms),
+                    ItemTextTokenizer.trigrams(nameTerms));
+            reindex(descriptionTrigrams, id, ItemTextTokenizer.trigrams(previousDescriptionTerms),
+                    ItemTextTokenizer.trigrams(descriptionTerms));
+            termsByItem.put(id, terms);
+            nameTermsByItem.put(id, nameTerms);
+            descriptionTermsByItem.put(id, descriptionTerms);
+            ownerByItem.put(id, item.getOwner().getId());
+            available.set(Math.toIntExact(id), Boolean.TRUE.equals(item.getAvailable()));
+            requested.set(Math.toIntExact(id), item.getRequest() != null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        List<String> tokens = ItemTextTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Integer> nameMatches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            BitSet matches = matchTokens(tokens);
+            matches.and(available);
+            for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+                ids.add((long) id);
+                nameMatches.put((long) id, countNameMatches(nameTermsByItem.get((long) id), tokens));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        ids.sort(Comparator.<Long>comparingInt(nameMatches::get).reversed().thenComparing(Function.identity()));
+        return hydrate(slice(ids, pageable));
+    }
+
+    @Override
+    public ItemSearchFacetsDto facets(String text) {
+        List<String> tokens = ItemTextTokenizer.tokenize(text);
+        if (tokens.isEmpty()) {
+            return new ItemSearchFacetsDto(0L, 0L, 0L, 0L, new ArrayList<>());
+        }
+        Map<Long, Long> itemsByOwner = new HashMap<>();
+        long total;
+        long availableCount;
+        long requestedCount;
+        lock.readLock().lock();
+        try {
+            BitSet matches = matchTokens(tokens);
+            total = matches.cardinality();
+            BitSet availableMatches = (BitSet) matches.clone();
+            availableMatches.and(available);
+            availableCount = availableMatches.cardinality();
+            BitSet requestedMatches = (BitSet) matches.clone();
+            requestedMatches.and(requested);
+            requestedCount = requestedMatches.cardinality();
+            for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+                itemsByOwner.merge(ownerByItem.get((long) id), 1L, Long::sum);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<OwnerFacetDto> owners = itemsByOwner.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(OWNER_FACETS)
+                .map(entry -> new OwnerFacetDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return new ItemSearchFacetsDto(total, availableCount, total - availableCount, requestedCount, owners);
+    }
+
+    @Override
+    public List<Item> searchSimilar(String text, double minSimilarity, Pageable pageable) {
+        Set<String> trigrams = ItemTextTokenizer.trigrams(ItemTextTokenizer.tokenize(text));
+        if (trigrams.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            List<String> counted = countedTrigrams(trigrams);
+            int[] nameHits = new int[available.length()];
+            int[] descriptionHits = new int[available.length()];
+            for (String trigram : counted) {
+                countHits(nameTrigrams.get(trigram), nameHits);
+                countHits(descriptionTrigrams.get(trigram), descriptionHits);
+            }
+            for (int id = available.nextSetBit(0); id >= 0; id = available.nextSetBit(id + 1)) {
+                if (nameHits[id] == 0 && descriptionHits[id] == 0) {
+                    continue;
+                }
+                double nameSimilarity = (double) nameHits[id] / counted.size();
+                double descriptionSimilarity = (double) descriptionHits[id] / counted.size();
+                if (nameSimilarity >= minSimilarity || descriptionSimilarity >= minSimilarity) {
+                    scores.put((long) id, 2 * nameSimilarity + descriptionSimilarity);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> ids = new ArrayList<>(scores.keySet());
+        ids.sort(Comparator.<Long>comparingDouble(scores::get).reversed().thenComparing(Function.identity()));
+        return hydrate(slice(ids, pageable));
+    }
+
+    private BitSet matchTokens(List<String> tokens) {
+        BitSet matches = null;
+        for (String token : tokens) {
+            BitSet tokenMatches = new BitSet();
+            for (PostingList postingList : postings.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                postingList.orInto(tokenMatches);
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+        }
+        return matches == null ? new BitSet() : matches;
+    }
+
+    private List<String> countedTrigrams(Set<String> trigrams) {
+        List<String> counted = new ArrayList<>(trigrams);
+        int indexed = termsByItem.size();
+        if (indexed < MIN_ITEMS_TO_SKIP_TRIGRAMS) {
+            return counted;
+        }
+        List<String> selective = counted.stream()
+                .filter(trigram -> frequency(trigram) <= indexed * MAX_TRIGRAM_SHARE)
+                .collect(Collectors.toList());
+        return selective.isEmpty() ? counted : selective;
+    }
+
+    private int frequency(String trigram) {
+        return Math.max(size(nameTrigrams.get(trigram)), size(descriptionTrigrams.get(trigram)));
+    }
+
+    private static int size(PostingList postingList) {
+        return postingList == null ? 0 : postingList.size();
+    }
+
+    private void countHits(PostingList postingList, int[] hits) {
+        if (postingList == null) {
+            return;
+        }
+        postingList.forEach(id -> {
+            int index = Math.toIntExact(id);
+            if (available.get(index)) {
+                hits[index]++;
+            }
+        });
+    }
+
+    private List<Item> hydrate(List<Long> pageIds) {
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(items::get)
+                .filter(item -> item != null)
+                .collect(Collectors.toList());
+    }
+
+    private static void reindex(Map<String, PostingList> index, long id, Set<String> previous, Set<String> current) {
+        for (String key : previous) {
+            if (!current.contains(key)) {
+                PostingList postingList = index.get(key);
+                postingList.remove(id);
+                if (postingList.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+        for (String key : current) {
+            if (!previous.contains(key)) {
+                index.computeIfAbsent(key, k -> new PostingList()).add(id);
+            }
+        }
+    }
+
+    private static int countNameMatches(Set<String> nameTerms, List<String> tokens) {
+        int count = 0;
+        for (String token : tokens) {
+            for (String term : nameTerms) {
+                if (term.startsWith(token)) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static List<Long> slice(List<Long> ids, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return ids;
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return ids.subList(from, to);
+    }
+}
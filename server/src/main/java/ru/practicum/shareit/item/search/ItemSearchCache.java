@@ -0,0 +1,171 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of search result ids, grouped by query. When a written item is part of any cached
+ * page of a query, or could match it before or after the write, every page of that query is dropped, since
+ * the item may have shifted the offsets of the later pages. Every invalidation also bumps a generation, and
+ * results computed under an older generation are not stored; cached pages never miss a change.
+ */
+@Component
+public class ItemSearchCache {
+    private final int maxSize;
+    private final Map<Key, Map<Page, List<Long>>> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+    private int size;
+    private long generation;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.search.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = Counter.builder("shareit.search.cache.gets").tag("result", "hit")
+                .description("Search cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("shareit.search.cache.gets").tag("result", "miss")
+                .description("Search cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("shareit.search.cache.evictions")
+                .description("Search cache entries evicted by size").register(meterRegistry);
+        this.invalidations = Counter.builder("shareit.search.cache.invalidations")
+                .description("Search cache entries dropped by item writes").register(meterRegistry);
+        Gauge.builder("shareit.search.cache.size", this, ItemSearchCache::size)
+                .description("Cached search pages")
+                .register(meterRegistry);
+    }
+
+    public static String normalize(String text) {
+        return text.strip().toLowerCase();
+    }
+
+    public synchronized Optional<List<Long>> get(String query, Double minSimilarity, Pageable pageable) {
+        Map<Page, List<Long>> pages = entries.get(new Key(query, minSimilarity));
+        List<Long> ids = pages == null ? null : pages.get(new Page(pageable));
+        if (ids == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return Optional.ofNullable(ids);
+    }
+
+    /**
+     * Returns the current generation; read it before running the search whose results are passed to
+     * {@link #put}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void put(String query, Double minSimilarity, Pageable pageable, List<Long> ids,
+                                 long generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        Map<Page, List<Long>> pages = entries.computeIfAbsent(new Key(query, minSimilarity), key -> new HashMap<>());
+        if (pages.put(new Page(pageable), Collections.unmodifiableList(ids)) == null) {
+            size++;
+        }
+        Iterator<Map<Page, List<Long>>> eldest = entries.values().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Map<Page, List<Long>> evicted = eldest.next();
+            eldest.remove();
+            size -= evicted.size();
+            evictions.increment(evicted.size());
+        }
+    }
+
+    /**
+     * Drops the queries the item could match before or after a write, and those with a page holding it.
+     */
+    public synchronized void invalidate(Item before, Item after) {
+        generation++;
+        Match previous = new Match(before);
+        Match current = new Match(after);
+        Iterator<Map.Entry<Key, Map<Page, List<Long>>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Map<Page, List<Long>>> entry = iterator.next();
+            if (previous.matches(entry.getKey()) || current.matches(entry.getKey())
+                    || entry.getValue().values().stream().anyMatch(ids -> ids.contains(after.getId()))) {
+                iterator.remove();
+                size -= entry.getValue().size();
+                invalidations.increment(entry.getValue().size());
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.increment(size);
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static class Match {
+        private final boolean available;
+        private final String text;
+        private final Set<String> trigrams;
+
+        Match(Item item) {
+            available = Boolean.TRUE.equals(item.getAvailable());
+            text = normalize(item.getName() + " " + item.getDescription());
+            trigrams = ItemTextTokenizer.trigrams(ItemTextTokenizer.tokenize(text));
+        }
+
+        boolean matches(Key key) {
+            return available && key.matches(text, trigrams);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+        private final String query;
+        private final Double minSimilarity;
+
+        Key(String query, Double minSimilarity) {
+            this.query = query;
+            this.minSimilarity = minSimilarity;
+        }
+
+        boolean matches(String text, Set<String> itemTrigrams) {
+            List<String> tokens = ItemTextTokenizer.tokenize(query);
+            if (minSimilarity != null) {
+                return ItemTextTokenizer.trigrams(tokens).stream().anyMatch(itemTrigrams::contains);
+            }
+            return tokens.isEmpty() ? text.contains(query) : tokens.stream().allMatch(text::contains);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class Page {
+        private final long offset;
+        private final int size;
+
+        Page(Pageable pageable) {
+            this.offset = pageable.isPaged() ? pageable.getOffset() : -1;
+            this.size = pageable.isPaged() ? pageable.getPageSize() : -1;
+        }
+    }
+}
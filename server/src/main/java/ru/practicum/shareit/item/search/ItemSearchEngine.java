@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    int OWNER_FACETS = 10;
+
+    List<Item> search(String text, Pageable pageable);
+
+    ItemSearchFacetsDto facets(String text);
+
+    List<Item> searchSimilar(String text, double minSimilarity, Pageable pageable);
+
+    default void index(Item item) {
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ItemTextTokenizer {
+    private ItemTextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public static Set<String> trigrams(Collection<String> tokens) {
+        Set<String> trigrams = new HashSet<>();
+        for (String token : tokens) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Share of the query trigrams that also occur in the text.
+     */
+    public static double similarity(Set<String> queryTrigrams, String text) {
+        if (queryTrigrams.isEmpty()) {
+            return 0;
+        }
+        Set<String> textTrigrams = trigrams(tokenize(text));
+        long common = queryTrigrams.stream().filter(textTrigrams::contains).count();
+        return (double) common / queryTrigrams.size();
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+    private static final int FRAGMENT_LENGTH = 3;
+    private static final int MAX_CANDIDATES_PER_FRAGMENT = 1000;
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        return itemRepository.findItemByText(text, pageable);
+    }
+
+    @Override
+    public ItemSearchFacetsDto facets(String text) {
+        return ItemMapper.toItemSearchFacetsDto(itemRepository.countFacetsByText(text),
+                itemRepository.countOwnersByText(text, PageRequest.of(0, OWNER_FACETS)));
+    }
+
+    /**
+     * Loads the items that share a three-letter fragment with the query through the substring search, then
+     * scores them by the share of query trigrams found in their name and description.
+     */
+    @Override
+    public List<Item> searchSimilar(String text, double minSimilarity, Pageable pageable) {
+        List<String> tokens = ItemTextTokenizer.tokenize(text);
+        Set<String> trigrams = ItemTextTokenizer.trigrams(tokens);
+        if (trigrams.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> candidates = new LinkedHashMap<>();
+        for (String fragment : fragments(tokens)) {
+            for (Item item : itemRepository.findItemByText(fragment,
+                    PageRequest.of(0, MAX_CANDIDATES_PER_FRAGMENT))) {
+                candidates.putIfAbsent(item.getId(), item);
+            }
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        List<Item> matches = new ArrayList<>();
+        for (Item item : candidates.values()) {
+            double nameSimilarity = ItemTextTokenizer.similarity(trigrams, item.getName());
+            double descriptionSimilarity = ItemTextTokenizer.similarity(trigrams, item.getDescription());
+            if (nameSimilarity >= minSimilarity || descriptionSimilarity >= minSimilarity) {
+                scores.put(item.getId(), 2 * nameSimilarity + descriptionSimilarity);
+                matches.add(item);
+            }
+        }
+        matches.sort(Comparator.<Item>comparingDouble(item -> scores.get(item.getId())).reversed()
+                .thenComparing(Item::getId));
+        if (pageable.isUnpaged()) {
+            return matches;
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new ArrayList<>(matches.subList(from, to));
+    }
+
+    private static Set<String> fragments(List<String> tokens) {
+        Set<String> fragments = new LinkedHashSet<>();
+        for (String token : tokens) {
+            if (token.length() <= FRAGMENT_LENGTH) {
+                fragments.add(token);
+                continue;
+            }
+            for (int i = 0; i + FRAGMENT_LENGTH <= token.length(); i++) {
+                fragments.add(token.substring(i, i + FRAGMENT_LENGTH));
+            }
+        }
+        return fragments;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.LongConsumer;
+
+/**
+ * Sorted list of item ids stored as variable-length encoded gaps. Appending a larger id
+ * is O(1); out-of-order inserts and removals re-encode the list.
+ */
+public class PostingList {
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private long last = -1;
+
+    public boolean add(long id) {
+        if (id > last) {
+            append(size == 0 ? id : id - last);
+            last = id;
+            size++;
+            return true;
+        }
+        long[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return false;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        encode(updated);
+        return true;
+    }
+
+    public boolean remove(long id) {
+        long[] ids = toArray();
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return false;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        encode(updated);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] ids = new long[size];
+        int[] index = new int[1];
+        forEach(id -> ids[index[0]++] = id);
+        return ids;
+    }
+
+    public void orInto(BitSet target) {
+        forEach(id -> target.set(Math.toIntExact(id)));
+    }
+
+    /**
+     * Decodes the ids in ascending order straight into the action, without materialising an array.
+     */
+    public void forEach(LongConsumer action) {
+        int offset = 0;
+        long current = 0;
+        for (int i = 0; i < size; i++) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            current = i == 0 ? gap : current + gap;
+            action.accept(current);
+        }
+    }
+
+    private void encode(long[] ids) {
+        data = new byte[Math.max(8, ids.length * 2)];
+        length = 0;
+        size = 0;
+        last = -1;
+        for (long id : ids) {
+            add(id);
+        }
+    }
+
+    private void append(long value) {
+        while (true) {
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            if ((value & ~0x7FL) == 0) {
+                data[length++] = (byte) value;
+                return;
+            }
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+    }
+}
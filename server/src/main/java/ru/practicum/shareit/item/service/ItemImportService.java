@@ -0,0 +1,355 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.srorage.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.CsvLineParser;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Imports items from an NDJSON or CSV body line by line. Valid lines are inserted in batches, each in its own
+ * transaction, and one result line is written per input line once its batch is done. The results are spooled
+ * to a temporary file and sent only after the whole body has been read: a client that writes the full upload
+ * before reading, as the gateway relay does, would otherwise stop reading while the server blocks on a full
+ * response buffer. Neither the request nor the response is held in memory. Imports run on a small dedicated
+ * pool with their own timeout.
+ */
+@Slf4j
+@Service
+public class ItemImportService {
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 512;
+    private static final int SEND_CHUNK_SIZE = 64 * 1024;
+    private static final List<String> CSV_REQUIRED_COLUMNS = List.of("name", "description", "available");
+
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSummaryService itemSummaryService;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSearchCache itemSearchCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long timeout;
+    private final ExecutorService executor;
+
+    public ItemImportService(ItemRepository itemRepository,
+                             UserRepository userRepository,
+                             ItemRequestRepository itemRequestRepository,
+                             ItemSummaryService itemSummaryService,
+                             ItemSearchEngine itemSearchEngine,
+                             ItemNameSuggester itemNameSuggester,
+                             ItemSearchCache itemSearchCache,
+                             TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${shareit.item.import.batch-size:500}") int batchSize,
+                             @Value("${shareit.item.import.timeout:3600000}") long timeout,
+                             @Value("${shareit.item.import.threads:4}") int threads) {
+        if (batchSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Import batch size and thread count must be positive");
+        }
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSummaryService = itemSummaryService;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemSearchCache = itemSearchCache;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public ResponseBodyEmitter importItems(long userId, ItemImportFormat format, InputStream body) {
+        User owner = userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("user with id " + userId + " not found"));
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout);
+        try {
+            executor.execute(() -> {
+                try {
+                    importSpooled(owner, format, body, emitter);
+                    emitter.complete();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Item import of user {} aborted: {}", owner.getId(), e.getMessage());
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ConflictException("Too many imports in progress, try again later");
+        }
+        return emitter;
+    }
+
+    private void importSpooled(User owner, ItemImportFormat format, InputStream body, ResponseBodyEmitter emitter)
+            throws IOException {
+        Path spool = Files.createTempFile("item-import-", ".ndjson");
+        try {
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                importItems(owner, format, body, out);
+            }
+            try (InputStream in = Files.newInputStream(spool)) {
+                byte[] chunk;
+                while ((chunk = in.readNBytes(SEND_CHUNK_SIZE)).length > 0) {
+                    emitter.send(chunk, MediaType.APPLICATION_NDJSON);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    public void importItems(User owner, ItemImportFormat format, InputStream body, OutputStream out)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        Map<String, Integer> columns = null;
+        if (format == ItemImportFormat.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            try {
+                columns = parseHeader(header);
+            } catch (IllegalArgumentException e) {
+                write(writer, List.of(ItemImportResultDto.builder().line(lineNumber).error(e.getMessage()).build()));
+                writer.flush();
+                return;
+            }
+        }
+        List<ItemImportResultDto> results = new ArrayList<>();
+        List<PendingItem> batch = new ArrayList<>();
+        int imported = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                ItemImportResultDto result = ItemImportResultDto.builder().line(lineNumber).build();
+                results.add(result);
+                try {
+                    ItemDto itemDto = format == ItemImportFormat.CSV ? parseCsv(line, columns) : parseJson(line);
+                    validate(itemDto);
+                    batch.add(new PendingItem(itemDto, result));
+                } catch (IllegalArgumentException e) {
+                    result.setError(e.getMessage());
+                }
+                if (results.size() == batchSize) {
+                    imported += insert(owner, batch);
+                    batch.clear();
+                    write(writer, results);
+                    results.clear();
+                }
+            }
+            imported += insert(owner, batch);
+            write(writer, results);
+            writer.flush();
+        } finally {
+            if (imported > 0) {
+                itemSearchCache.invalidateAll();
+            }
+        }
+        log.info("User: {} imported {} items", owner.getId(), imported);
+    }
+
+    private int insert(User owner, List<PendingItem> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Item> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insertBatch(owner, batch));
+        } catch (RuntimeException e) {
+            log.warn("Item import batch failed", e);
+            for (PendingItem pending : batch) {
+                if (pending.result.getError() == null) {
+                    pending.result.setId(null);
+                    pending.result.setError("Batch insert failed");
+                }
+            }
+            return 0;
+        }
+        for (Item item : saved) {
+            itemSearchEngine.index(item);
+            itemNameSuggester.index(item);
+        }
+        return saved.size();
+    }
+
+    private List<Item> insertBatch(User owner, List<PendingItem> batch) {
+        Set<Long> requestIds = batch.stream()
+                .map(pending -> pending.itemDto.getRequestId())
+                .filter(id -> id != null)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = new HashMap<>();
+        if (!requestIds.isEmpty()) {
+            for (ItemRequest request : itemRequestRepository.findAllById(requestIds)) {
+                requests.put(request.getId(), request);
+            }
+        }
+        List<Item> items = new ArrayList<>();
+        List<PendingItem> accepted = new ArrayList<>();
+        for (PendingItem pending : batch) {
+            Long requestId = pending.itemDto.getRequestId();
+            if (requestId != null && !requests.containsKey(requestId)) {
+                pending.result.setError("Item request not found");
+                continue;
+            }
+            Item item = ItemMapper.fromItemDto(pending.itemDto);
+            item.setId(null);
+            item.setOwner(owner);
+            item.setRequest(requestId == null ? null : requests.get(requestId));
+            items.add(item);
+            accepted.add(pending);
+        }
+        List<Item> saved = itemRepository.saveAllAndFlush(items);
+        for (int i = 0; i < saved.size(); i++) {
+            accepted.get(i).result.setId(saved.get(i).getId());
+        }
+        itemSummaryService.createAll(saved.stream().map(Item::getId).collect(Collectors.toList()));
+        return saved;
+    }
+
+    private ItemDto parseJson(String line) {
+        try {
+            ItemDto itemDto = objectMapper.readValue(line, ItemDto.class);
+            if (itemDto == null) {
+                throw new IllegalArgumentException("Item is required");
+            }
+            return itemDto;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLineParser.parse(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).strip(), i);
+        }
+        Set<String> missing = new HashSet<>(CSV_REQUIRED_COLUMNS);
+        missing.removeAll(columns.keySet());
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header must contain " + String.join(", ", CSV_REQUIRED_COLUMNS));
+        }
+        return columns;
+    }
+
+    private static ItemDto parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvLineParser.parse(line);
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields but got " + fields.size());
+        }
+        String available = fields.get(columns.get("available")).strip();
+        if (!available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Available must be true or false");
+        }
+        Long requestId = null;
+        Integer requestColumn = columns.get("requestId");
+        if (requestColumn != null && !fields.get(requestColumn).isBlank()) {
+            try {
+                requestId = Long.valueOf(fields.get(requestColumn).strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Request id must be a number");
+            }
+        }
+        return ItemDto.builder()
+                .name(fields.get(columns.get("name")))
+                .description(fields.get(columns.get("description")))
+                .available(Boolean.valueOf(available))
+                .requestId(requestId)
+                .build();
+    }
+
+    private static void validate(ItemDto itemDto) {
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            throw new IllegalArgumentException("Name is required");
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isBlank()) {
+            throw new IllegalArgumentException("Description is required");
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new IllegalArgumentException("Available is required");
+        }
+        if (itemDto.getName().length() > MAX_NAME_LENGTH
+                || itemDto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Name or description is too long");
+        }
+    }
+
+    private void write(Writer writer, List<ItemImportResultDto> results) throws IOException {
+        for (ItemImportResultDto result : results) {
+            writer.write(objectMapper.writeValueAsString(result));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static class PendingItem {
+        private final ItemDto itemDto;
+        private final ItemImportResultDto result;
+
+        PendingItem(ItemDto itemDto, ItemImportResultDto result) {
+            this.itemDto = itemDto;
+            this.result = result;
+        }
+    }
+}
@@ -2,20 +2,38 @@ package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.util.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
     List<ItemDto> getAllItemsByUserId(long userId, Pageable pageable);
 
+    List<ItemDto> getAllItemsByUserId(long userId, PageCursor after, Pageable pageable);
+
     ItemDto createItem(ItemDto itemDto, long userId);
 
     ItemDto updateItem(ItemDto itemDto, long itemId, long userId);
 
     List<ItemDto> searchItems(String word, Pageable pageable);
 
+    List<ItemDto> searchItems(String word, double minSimilarity, Pageable pageable);
+
+    ItemSearchResultDto searchItemsWithFacets(String word, Pageable pageable);
+
+    List<String> suggestNames(String prefix, int size);
+
+    List<ItemDto> searchItems(String word, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
     ItemDto getItemById(Long itemId, Long userId);
 
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to, String granularity);
+
+    List<CommentDto> getComments(Long itemId, PageCursor after, Pageable pageable);
+
     CommentDto addComment(CommentDto commentDto, Long itemId, Long userId);
 }
\ No newline at end of file
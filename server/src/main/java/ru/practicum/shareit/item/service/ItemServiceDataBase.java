@@ -3,26 +3,41 @@ package ru.practicum.shareit.item.service;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ObjectUtils;
 import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.dto.ShortBookingDto;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingSlotBitmap;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.srorage.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.AfterCommit;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -32,52 +47,96 @@ import java.util.stream.Collectors;
 @Service
 @Qualifier("dataBaseService")
 public class ItemServiceDataBase implements ItemService {
+    private static final int MAX_AVAILABILITY_SLOTS = 2000;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSummaryService itemSummaryService;
 
     public ItemServiceDataBase(@Qualifier("DataBaseService") UserService userService,
                                ItemRepository itemRepository, UserRepository userRepository,
-                               CommentRepository commentRepository, BookingRepository bookingRepository, ItemRequestRepository itemRequestRepository) {
+                               CommentRepository commentRepository, BookingRepository bookingRepository,
+                               ArchivedBookingRepository archivedBookingRepository, ItemRequestRepository itemRequestRepository,
+                               BookingIntervalIndex bookingIntervalIndex, ItemSearchEngine itemSearchEngine,
+                               ItemNameSuggester itemNameSuggester, ItemSearchCache itemSearchCache,
+                               ItemSummaryService itemSummaryService) {
         this.userService = userService;
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.commentRepository = commentRepository;
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemSearchCache = itemSearchCache;
+        this.itemSummaryService = itemSummaryService;
     }
 
     @Override
     public List<ItemDto> getAllItemsByUserId(long userId, Pageable pageable) {
-        if (userService.findUserById(userId) == null) {
+        checkUserExists(userId);
+        return toOwnerItemDtoList(itemRepository.findAllByOwner_IdOrderByIdAsc(userId,
+                pageable == null ? Pageable.unpaged() : pageable));
+    }
+
+    @Override
+    public List<ItemDto> getAllItemsByUserId(long userId, PageCursor after, Pageable pageable) {
+        checkUserExists(userId);
+        Long afterId = after == null ? 0L : after.getId();
+        return toOwnerItemDtoList(itemRepository.findAllByOwner_IdAndIdGreaterThanOrderByIdAsc(userId, afterId,
+                pageable));
+    }
+
+    private void checkUserExists(long userId) {
+        UserDto userDto = userService.findUserById(userId);
+        if (userDto == null) {
             throw new NotFoundException("User with id " + userId + " not found");
         }
-        User user = UserMapper.fromUserDto(userService.findUserById(userId));
-        List<Item> items;
-        if (pageable != null) {
-            items = itemRepository.findAllByOwner(user, pageable).stream()
-                    .filter(x -> userId == x.getOwner().getId()).sorted(Comparator.comparing(Item::getId))
-                    .collect(Collectors.toList());
-        } else {
-            items = itemRepository.findAllByOwner(user).stream()
-                    .filter(x -> userId == x.getOwner().getId()).sorted(Comparator.comparing(Item::getId))
-                    .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> toOwnerItemDtoList(List<Item> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
         }
+        return toItemDtoList(items, items.get(0).getOwner().getId());
+    }
+
+    private List<ItemDto> toItemDtoList(List<Item> items, Long viewerId) {
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, ItemSummary> summaries = itemSummaryService.findByItemIds(itemIds);
+        Map<Long, List<CommentDto>> comments = findComments(summaries.values());
         List<ItemDto> itemsDto = new ArrayList<>();
         for (Item item : items) {
             ItemDto itemDto = ItemMapper.toItemDto(item);
-            itemDto.setComments(findComments(item.getId()));
-            itemDto.setNextBooking(getNextBooking(item.getId()));
-            itemDto.setLastBooking(getLastBooking(item.getId()));
+            itemDto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+            ItemSummary summary = summaries.get(item.getId());
+            if (summary != null && item.getOwner().getId().equals(viewerId)) {
+                if (summary.getLastBooking() != null) {
+                    itemDto.setLastBooking(BookingMapper.toShortBook(summary.getLastBooking(), item.getId()));
+                }
+                if (summary.getNextBooking() != null) {
+                    itemDto.setNextBooking(BookingMapper.toShortBook(summary.getNextBooking(), item.getId()));
+                }
+            }
             itemsDto.add(itemDto);
         }
         return itemsDto;
     }
 
     @Override
+    @Transactional
     public ItemDto createItem(ItemDto itemDto, long userId) {
         Item item = ItemMapper.fromItemDto(itemDto);
         item.setOwner(userRepository.findById(userId).orElseThrow(() ->
@@ -87,7 +146,10 @@ public class ItemServiceDataBase implements ItemService {
                     .orElseThrow(() -> new NotFoundException("Item request not found"));
             item.setRequest(itemRequest);
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        itemSummaryService.create(saved.getId());
+        AfterCommit.run(() -> reindex(saved, saved));
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
@@ -97,6 +159,8 @@ public class ItemServiceDataBase implements ItemService {
         if (item.getOwner().getId() != userId) {
             throw new NotFoundException("User with id" + userId + "now owner");
         }
+        Item before = Item.builder().id(item.getId()).name(item.getName()).description(item.getDescription())
+                .available(item.getAvailable()).build();
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -106,7 +170,15 @@ public class ItemServiceDataBase implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        AfterCommit.run(() -> reindex(before, saved));
+        return ItemMapper.toItemDto(saved);
+    }
+
+    private void reindex(Item before, Item item) {
+        itemSearchEngine.index(item);
+        itemNameSuggester.index(item);
+        itemSearchCache.invalidate(before, item);
     }
 
     @Override
@@ -114,15 +186,77 @@ public class ItemServiceDataBase implements ItemService {
         if (word.isEmpty()) {
             return new ArrayList<>();
         }
-        List<ItemDto> itemsDto = new ArrayList<>();
-        if (pageable != null) {
-            for (Item item : itemRepository.findItemByText(word, pageable)) {
-                itemsDto.add(ItemMapper.toItemDto(item));
-            }
+        return cachedSearch(word, null, pageable == null ? Pageable.unpaged() : pageable);
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String word, double minSimilarity, Pageable pageable) {
+        if (!(minSimilarity > 0 && minSimilarity <= 1)) {
+            throw new BadRequestException("Min similarity must be in (0, 1]");
+        }
+        if (word.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return cachedSearch(word, minSimilarity, pageable == null ? Pageable.unpaged() : pageable);
+    }
+
+    @Override
+    public ItemSearchResultDto searchItemsWithFacets(String word, Pageable pageable) {
+        if (word.isBlank()) {
+            return new ItemSearchResultDto(new ArrayList<>(),
+                    new ItemSearchFacetsDto(0L, 0L, 0L, 0L, new ArrayList<>()));
+        }
+        return new ItemSearchResultDto(searchItems(word, pageable),
+                itemSearchEngine.facets(ItemSearchCache.normalize(word)));
+    }
+
+    private List<ItemDto> cachedSearch(String word, Double minSimilarity, Pageable pageable) {
+        String query = ItemSearchCache.normalize(word);
+        Optional<List<Long>> cached = itemSearchCache.get(query, minSimilarity, pageable);
+        List<Item> items;
+        if (cached.isPresent()) {
+            List<Long> ids = cached.get();
+            Map<Long, Item> itemsById = itemRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Item::getId, item -> item));
+            items = ids.stream()
+                    .map(itemsById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
         } else {
-            for (Item item : itemRepository.findItemByText(word)) {
-                itemsDto.add(ItemMapper.toItemDto(item));
-            }
+            long generation = itemSearchCache.generation();
+            items = minSimilarity == null
+                    ? itemSearchEngine.search(query, pageable)
+                    : itemSearchEngine.searchSimilar(query, minSimilarity, pageable);
+            itemSearchCache.put(query, minSimilarity, pageable,
+                    items.stream().map(Item::getId).collect(Collectors.toList()), generation);
+        }
+        List<ItemDto> itemsDto = new ArrayList<>();
+        for (Item item : items) {
+            itemsDto.add(ItemMapper.toItemDto(item));
+        }
+        return itemsDto;
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        if (prefix.isBlank() || size <= 0) {
+            return new ArrayList<>();
+        }
+        return itemNameSuggester.suggest(prefix.strip(), Math.min(size, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String word, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new BadRequestException("Search period is incorrect");
+        }
+        if (word.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ItemDto> itemsDto = new ArrayList<>();
+        for (Item item : itemRepository.findAvailableItemByText(word, start, end,
+                pageable == null ? Pageable.unpaged() : pageable)) {
+            itemsDto.add(ItemMapper.toItemDto(item));
         }
         return itemsDto;
     }
@@ -131,53 +265,93 @@ public class ItemServiceDataBase implements ItemService {
     public ItemDto getItemById(Long itemId, Long userId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Item with " + itemId + " not found"));
-        ItemDto itemDto = ItemMapper.toItemDto(item);
-        itemDto.setComments(findComments(itemId));
-        if (item.getOwner().getId().equals(userId)) {
-            itemDto.setNextBooking(getNextBooking(itemId));
-            itemDto.setLastBooking(getLastBooking(itemId));
+        return toItemDtoList(List.of(item), userId).get(0);
+    }
+
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to, String granularity) {
+        if (!ObjectUtils.containsConstant(AvailabilityGranularity.values(), granularity)) {
+            throw new BadRequestException("Unknown granularity: " + granularity);
+        }
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new BadRequestException("Availability range is incorrect");
+        }
+        AvailabilityGranularity slotGranularity = AvailabilityGranularity.valueOf(granularity);
+        int step = slotGranularity.getSlots();
+        long first = Math.floorDiv(BookingSlotBitmap.slotOf(from), step) * step;
+        long last = -Math.floorDiv(-BookingSlotBitmap.slotOf(to.minusNanos(1)) - 1, step) * step;
+        if ((last - first) / step > MAX_AVAILABILITY_SLOTS) {
+            throw new BadRequestException("Availability range is too long");
         }
-        return itemDto;
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new NotFoundException("Item with id " + itemId + " not found"));
+        LocalDateTime now = LocalDateTime.now();
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+        for (long slot = first; slot < last; slot += step) {
+            LocalDateTime end = BookingSlotBitmap.startOf(slot + step);
+            slots.add(AvailabilitySlotDto.builder()
+                    .start(BookingSlotBitmap.startOf(slot))
+                    .end(end)
+                    .available(item.getAvailable() && end.isAfter(now)
+                            && !bookingIntervalIndex.isBooked(itemId, slot, slot + step))
+                    .build());
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .granularity(slotGranularity)
+                .slots(slots)
+                .build();
     }
 
+    @Override
+    public List<CommentDto> getComments(Long itemId, PageCursor after, Pageable pageable) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Item with " + itemId + " not found");
+        }
+        List<Comment> comments;
+        if (after == null) {
+            comments = commentRepository.findPageByItemId(itemId, pageable);
+        } else {
+            if (after.getSortKey() == null) {
+                throw new BadRequestException("Incorrect cursor");
+            }
+            comments = commentRepository.findPageByItemIdAfter(itemId, after.getSortKey().toLocalDate(),
+                    after.getId(), pageable);
+        }
+        return comments.stream().map(CommentMapper::commentDto).collect(Collectors.toList());
+    }
 
     @Override
+    @Transactional
     public CommentDto addComment(CommentDto commentDto, Long itemId, Long userId) {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Item with id " + itemId + " not found"));
         User user = userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("User with id " + userId + " not found"));
         Comment comment = CommentMapper.fromCommentDto(commentDto, user, item);
-        List<Booking> bookingList = bookingRepository.findAllByBooker_IdAndEndTimeBefore(comment.getAuthor().getId(),
-                LocalDateTime.now());
-        if (bookingList.isEmpty()) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(userId, itemId,
+                Status.APPROVED, now)
+                && !archivedBookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(userId, itemId,
+                Status.APPROVED, now)) {
             throw new BadRequestException("User not booking this item");
         }
         comment.setCreated(LocalDate.now());
-        return CommentMapper.commentDto(commentRepository.save(comment));
-    }
-
-    private Set<CommentDto> findComments(Long itemId) {
-        Set<CommentDto> commentDtoList = new HashSet<>();
-        for (Comment comment : commentRepository.findByItem_IdOrderByCreatedDesc(itemId)) {
-            commentDtoList.add(CommentMapper.commentDto(comment));
-        }
-        return commentDtoList;
-    }
-
-    private ShortBookingDto getLastBooking(Long itemId) {
-        Booking last = bookingRepository.getFirstByItemIdOrderByStartTimeAsc(itemId);
-        if (last == null) {
-            return null;
-        }
-        return BookingMapper.toShortBook(last);
+        Comment saved = commentRepository.save(comment);
+        itemSummaryService.addComment(saved);
+        return CommentMapper.commentDto(saved);
     }
 
-    private ShortBookingDto getNextBooking(Long itemId) {
-        Booking next = bookingRepository.getFirstByItemIdOrderByEndTimeDesc(itemId);
-        if (next == null) {
-            return null;
+    private Map<Long, List<CommentDto>> findComments(Collection<ItemSummary> summaries) {
+        List<Long> ids = summaries.stream()
+                .flatMap(summary -> itemSummaryService.latestCommentIds(summary).stream())
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
         }
-        return BookingMapper.toShortBook(next);
+        return commentRepository.findAllWithAuthorByIdIn(ids).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::commentDto, Collectors.toList())));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class ItemSummaryRefresher {
+    private final ItemSummaryService itemSummaryService;
+    private final int batchSize;
+
+    public ItemSummaryRefresher(ItemSummaryService itemSummaryService,
+                                @Value("${shareit.item.summary.refresh-batch-size:500}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Summary refresh batch size must be positive");
+        }
+        this.itemSummaryService = itemSummaryService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.summary.refresh-interval-ms:60000}",
+            initialDelayString = "${shareit.item.summary.refresh-interval-ms:60000}")
+    public void refreshStarted() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int refreshed;
+        do {
+            refreshed = itemSummaryService.refreshStarted(now, batchSize);
+            total += refreshed;
+        } while (refreshed == batchSize);
+        if (total > 0) {
+            log.info("Refreshed {} item summaries whose next booking started before {}", total, now);
+        }
+    }
+}
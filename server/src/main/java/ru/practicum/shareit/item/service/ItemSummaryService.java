@@ -0,0 +1,208 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingRecord;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.storage.ItemSummaryRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the item_summary read model in the transaction of the write that changes it. Summary rows
+ * are locked before they are recomputed, so concurrent writers of the same item apply one after another.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemSummaryService {
+    // latest_comment_ids is a VARCHAR(1024) of comma separated ids, each at most 19 digits long
+    private static final int LATEST_COMMENT_IDS_LENGTH = 1024;
+    private static final int MAX_COMMENTS_LIMIT = LATEST_COMMENT_IDS_LENGTH / 20;
+
+    private final ItemSummaryRepository itemSummaryRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+
+    @Value("${shareit.item.comments-limit:10}")
+    private int commentsLimit = 10;
+
+    @PostConstruct
+    public void checkCommentsLimit() {
+        if (commentsLimit <= 0 || commentsLimit > MAX_COMMENTS_LIMIT) {
+            throw new IllegalArgumentException("Comments limit must be between 1 and " + MAX_COMMENTS_LIMIT);
+        }
+    }
+
+    @Transactional
+    public void create(Long itemId) {
+        itemSummaryRepository.save(ItemSummary.builder().itemId(itemId).build());
+    }
+
+    @Transactional
+    public void createAll(Collection<Long> itemIds) {
+        itemSummaryRepository.createAll(itemIds);
+    }
+
+    @Transactional
+    public void addComment(Comment comment) {
+        Long itemId = comment.getItem().getId();
+        ItemSummary summary = lock(List.of(itemId)).get(itemId);
+        List<Long> latest = new ArrayList<>();
+        latest.add(comment.getId());
+        latest.addAll(summary.getLatestCommentIds());
+        summary.setLatestCommentIds(new ArrayList<>(latest.subList(0, Math.min(latest.size(), commentsLimit))));
+        summary.setCommentCount(summary.getCommentCount() + 1);
+        itemSummaryRepository.save(summary);
+    }
+
+    @Transactional
+    public void refreshBookings(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemSummary> summaries = lock(itemIds);
+        recomputeBookings(summaries, LocalDateTime.now());
+        itemSummaryRepository.saveAll(summaries.values());
+    }
+
+    /**
+     * Returns the ids of the latest comments of the summary, cut to the current limit, so a lowered limit
+     * applies to summaries written before it changed.
+     */
+    public List<Long> latestCommentIds(ItemSummary summary) {
+        List<Long> ids = summary.getLatestCommentIds();
+        return ids.size() <= commentsLimit ? ids : ids.subList(0, commentsLimit);
+    }
+
+    /**
+     * Rewrites the summaries whose next booking has started by the given time, at most {@code limit} of them.
+     * Returns how many were rewritten.
+     */
+    @Transactional
+    public int refreshStarted(LocalDateTime now, int limit) {
+        List<Long> itemIds = itemSummaryRepository.findItemIdsWithNextBookingStartedBy(now,
+                PageRequest.of(0, limit));
+        refreshBookings(itemIds);
+        return itemIds.size();
+    }
+
+    /**
+     * Returns the summaries of the given items. A summary whose next booking has already started is
+     * anchored to an earlier time, so its last and next bookings are recomputed into a copy that is returned
+     * but not saved; {@link ItemSummaryRefresher} persists them in the background.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ItemSummary> findByItemIds(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemSummary> summaries = new HashMap<>();
+        Map<Long, ItemSummary> stale = new HashMap<>();
+        for (ItemSummary summary : itemSummaryRepository.findAllById(itemIds)) {
+            summaries.put(summary.getItemId(), summary);
+            if (summary.getNextBooking() != null && !summary.getNextBooking().getStartTime().isAfter(now)) {
+                stale.put(summary.getItemId(), copyOf(summary));
+            }
+        }
+        if (!stale.isEmpty()) {
+            recomputeBookings(stale, now);
+            summaries.putAll(stale);
+        }
+        return summaries;
+    }
+
+    private void recomputeBookings(Map<Long, ItemSummary> summaries, LocalDateTime now) {
+        for (ItemSummary summary : summaries.values()) {
+            summary.setLastBooking(null);
+            summary.setNextBooking(null);
+        }
+        if (summaries.size() == 1) {
+            ItemSummary summary = summaries.values().iterator().next();
+            Long itemId = summary.getItemId();
+            bookingRepository.findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(itemId,
+                            Status.APPROVED, now)
+                    .map(ItemSummaryService::toSnapshot)
+                    .or(() -> archivedBookingRepository
+                            .findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(itemId,
+                                    Status.APPROVED, now)
+                            .map(ItemSummaryService::toSnapshot))
+                    .ifPresent(summary::setLastBooking);
+            bookingRepository.findFirstByItem_IdAndStatusAndStartTimeAfterOrderByStartTimeAscIdAsc(itemId,
+                            Status.APPROVED, now)
+                    .map(ItemSummaryService::toSnapshot)
+                    .ifPresent(summary::setNextBooking);
+            return;
+        }
+        for (ItemBookingView booking : bookingRepository.findLastApprovedByItemIds(summaries.keySet(), now)) {
+            summaries.get(booking.getItemId()).setLastBooking(toSnapshot(booking));
+        }
+        List<Long> withoutLast = summaries.values().stream()
+                .filter(summary -> summary.getLastBooking() == null)
+                .map(ItemSummary::getItemId)
+                .collect(Collectors.toList());
+        if (!withoutLast.isEmpty()) {
+            for (ItemBookingView booking : archivedBookingRepository.findLastApprovedByItemIds(withoutLast, now)) {
+                summaries.get(booking.getItemId()).setLastBooking(toSnapshot(booking));
+            }
+        }
+        for (ItemBookingView booking : bookingRepository.findNextApprovedByItemIds(summaries.keySet(), now)) {
+            summaries.get(booking.getItemId()).setNextBooking(toSnapshot(booking));
+        }
+    }
+
+    private Map<Long, ItemSummary> lock(Collection<Long> itemIds) {
+        Map<Long, ItemSummary> summaries = new HashMap<>();
+        for (ItemSummary summary : itemSummaryRepository.findAllByItemIdInForUpdate(new TreeSet<>(itemIds))) {
+            summaries.put(summary.getItemId(), summary);
+        }
+        for (Long itemId : itemIds) {
+            summaries.computeIfAbsent(itemId, id -> ItemSummary.builder().itemId(id).build());
+        }
+        return summaries;
+    }
+
+    private static ItemSummary copyOf(ItemSummary summary) {
+        return ItemSummary.builder()
+                .itemId(summary.getItemId())
+                .lastBooking(summary.getLastBooking())
+                .nextBooking(summary.getNextBooking())
+                .commentCount(summary.getCommentCount())
+                .latestCommentIds(new ArrayList<>(summary.getLatestCommentIds()))
+                .build();
+    }
+
+    private static BookingSnapshot toSnapshot(BookingRecord booking) {
+        return BookingSnapshot.builder()
+                .bookingId(booking.getId())
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .bookerId(booking.getBooker().getId())
+                .status(booking.getStatus())
+                .build();
+    }
+
+    private static BookingSnapshot toSnapshot(ItemBookingView booking) {
+        return BookingSnapshot.builder()
+                .bookingId(booking.getId())
+                .startTime(booking.getStart())
+                .endTime(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .status(booking.getStatus())
+                .build();
+    }
+}
@@ -1,11 +1,27 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.item " +
+            "WHERE c.id IN :ids ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findAllWithAuthorByIdIn(@Param("ids") Collection<Long> ids);
 
-    List<Comment> findByItem_IdOrderByCreatedDesc(Long itemId);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findPageByItemId(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.item.id = :itemId AND (c.created < :created OR (c.created = :created AND c.id < :id)) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findPageByItemIdAfter(@Param("itemId") Long itemId, @Param("created") LocalDate created,
+                                        @Param("id") Long id, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.storage;
+
+public interface ItemFacetView {
+    Long getTotal();
+
+    Long getAvailable();
+
+    Long getRequested();
+}
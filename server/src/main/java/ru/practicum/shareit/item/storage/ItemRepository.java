@@ -1,25 +1,73 @@
 package ru.practicum.shareit.item.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    Page<Item> findAllByOwner(User user, Pageable pageable);
+    List<Item> findAllByOwner_IdOrderByIdAsc(Long ownerId, Pageable pageable);
 
-    List<Item> findAllByOwner(User user);
+    List<Item> findAllByOwner_IdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long id, Pageable pageable);
 
-    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%') ) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%') ) AND i.available = true )")
+    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%'))) AND i.available = true " +
+            "ORDER BY CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) THEN 0 ELSE 1 END, i.id")
     List<Item> findItemByText(@Param("word") String word);
 
-    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%') ) OR " +
-            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%') ) AND i.available = true )")
-    Page<Item> findItemByText(@Param("word") String word, Pageable pageable);
-}
\ No newline at end of file
+    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%'))) AND i.available = true " +
+            "ORDER BY CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) THEN 0 ELSE 1 END, i.id")
+    List<Item> findItemByText(@Param("word") String word, Pageable pageable);
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true AND i.search_vector @@ to_tsquery('simple', :query) " +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('simple', :query)) DESC, i.id", nativeQuery = true)
+    List<Item> findByFullText(@Param("query") String query, Pageable pageable);
+
+    @Query("SELECT COUNT(i) AS total, " +
+            "COALESCE(SUM(CASE WHEN i.available = true THEN 1 ELSE 0 END), 0) AS available, " +
+            "COALESCE(SUM(CASE WHEN i.request.id IS NOT NULL THEN 1 ELSE 0 END), 0) AS requested " +
+            "FROM Item i WHERE LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%'))")
+    ItemFacetView countFacetsByText(@Param("word") String word);
+
+    @Query("SELECT i.owner.id AS owner, COUNT(i) AS total FROM Item i " +
+            "WHERE LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%')) " +
+            "GROUP BY i.owner.id ORDER BY COUNT(i) DESC, i.owner.id")
+    List<OwnerFacetView> countOwnersByText(@Param("word") String word, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) AS total, " +
+            "COALESCE(SUM(CASE WHEN i.available THEN 1 ELSE 0 END), 0) AS available, " +
+            "COALESCE(SUM(CASE WHEN i.request_id IS NOT NULL THEN 1 ELSE 0 END), 0) AS requested " +
+            "FROM items i WHERE i.search_vector @@ to_tsquery('simple', :query)", nativeQuery = true)
+    ItemFacetView countFacetsByFullText(@Param("query") String query);
+
+    @Query(value = "SELECT i.owner_id AS owner, COUNT(*) AS total FROM items i " +
+            "WHERE i.search_vector @@ to_tsquery('simple', :query) " +
+            "GROUP BY i.owner_id ORDER BY COUNT(*) DESC, i.owner_id", nativeQuery = true)
+    List<OwnerFacetView> countOwnersByFullText(@Param("query") String query, Pageable pageable);
+
+    @Query(value = "SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)", nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") String threshold);
+
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true AND (:text <% i.name OR :text <% i.description) " +
+            "ORDER BY 2 * word_similarity(:text, i.name) + word_similarity(:text, i.description) DESC, i.id",
+            nativeQuery = true)
+    List<Item> findBySimilarity(@Param("text") String text, Pageable pageable);
+
+    @Query("SELECT i FROM Item i WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%',:word,'%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%',:word,'%'))) AND i.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.item = i " +
+            "AND b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "AND b.startTime < :end AND b.endTime > :start) " +
+            "ORDER BY i.id")
+    List<Item> findAvailableItemByText(@Param("word") String word, @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end, Pageable pageable);
+}
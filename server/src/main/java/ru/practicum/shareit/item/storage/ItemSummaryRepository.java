@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemSummaryRepository extends JpaRepository<ItemSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemSummary s WHERE s.itemId IN :itemIds ORDER BY s.itemId")
+    List<ItemSummary> findAllByItemIdInForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO item_summary (item_id, comment_count) SELECT i.id, 0 FROM items i " +
+            "WHERE i.id IN (:itemIds)", nativeQuery = true)
+    int createAll(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT s.itemId FROM ItemSummary s WHERE s.nextBooking.startTime <= :now ORDER BY s.itemId")
+    List<Long> findItemIdsWithNextBookingStartedBy(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.storage;
+
+public interface OwnerFacetView {
+    Long getOwner();
+
+    Long getTotal();
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.suggest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemTextTokenizer;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class ItemNameSuggester {
+    private static final int BOOTSTRAP_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final ItemNameTrie trie = new ItemNameTrie();
+    private final Map<Long, Set<String>> tokensByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemNameSuggester(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        Pageable pageable = PageRequest.of(0, BOOTSTRAP_BATCH_SIZE, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = itemRepository.findAll(pageable);
+            page.forEach(this::index);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        log.info("Item name suggestions built for {} items", tokensByItem.size());
+    }
+
+    public void index(Item item) {
+        Set<String> tokens = Boolean.TRUE.equals(item.getAvailable())
+                ? new HashSet<>(ItemTextTokenizer.tokenize(item.getName()))
+                : Set.of();
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = tokensByItem.getOrDefault(item.getId(), Set.of());
+            for (String token : previous) {
+                if (!tokens.contains(token)) {
+                    trie.remove(token);
+                }
+            }
+            for (String token : tokens) {
+                if (!previous.contains(token)) {
+                    trie.add(token);
+                }
+            }
+            if (tokens.isEmpty()) {
+                tokensByItem.remove(item.getId());
+            } else {
+                tokensByItem.put(item.getId(), tokens);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.suggest(prefix.toLowerCase(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.practicum.shareit.item.suggest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Radix trie of name tokens with occurrence counts. Every node keeps the maximum count of its
+ * subtree, so top-k completions are found best-first without walking the whole subtree.
+ */
+public class ItemNameTrie {
+    private final Node root = new Node("");
+
+    public void add(String word) {
+        change(word, 1);
+    }
+
+    public void remove(String word) {
+        change(word, -1);
+    }
+
+    public int count(String word) {
+        Node node = root;
+        int i = 0;
+        while (i < word.length()) {
+            Node child = node.children.get(word.charAt(i));
+            if (child == null || !word.startsWith(child.label, i)) {
+                return 0;
+            }
+            node = child;
+            i += child.label.length();
+        }
+        return node.count;
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        Node node = root;
+        String text = "";
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return result;
+            }
+            if (prefix.startsWith(child.label, i)) {
+                i += child.label.length();
+            } else if (child.label.startsWith(prefix.substring(i))) {
+                i = prefix.length();
+            } else {
+                return result;
+            }
+            node = child;
+            text += child.label;
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingInt(Candidate::getPriority)
+                .reversed().thenComparing(Candidate::getText));
+        queue.add(new Candidate(node.maxCount, text, node));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.node == null) {
+                result.add(candidate.text);
+                continue;
+            }
+            if (candidate.node.count > 0) {
+                queue.add(new Candidate(candidate.node.count, candidate.text, null));
+            }
+            for (Node child : candidate.node.children.values()) {
+                queue.add(new Candidate(child.maxCount, candidate.text + child.label, child));
+            }
+        }
+        return result;
+    }
+
+    private void change(String word, int delta) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        path.push(node);
+        int i = 0;
+        while (i < word.length()) {
+            Node child = node.children.get(word.charAt(i));
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node(word.substring(i));
+                node.children.put(word.charAt(i), child);
+            }
+            int common = commonPrefixLength(child.label, word, i);
+            if (common < child.label.length()) {
+                if (delta < 0) {
+                    return;
+                }
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                middle.maxCount = child.maxCount;
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            path.push(node);
+            i += common;
+        }
+        if (node.count + delta < 0) {
+            return;
+        }
+        node.count += delta;
+        while (!path.isEmpty()) {
+            Node current = path.pop();
+            Node parent = path.peek();
+            if (parent != null && current.count == 0 && current.children.isEmpty()) {
+                parent.children.remove(current.label.charAt(0));
+                continue;
+            }
+            if (parent != null && current.count == 0 && current.children.size() == 1) {
+                Node only = current.children.firstEntry().getValue();
+                current.label += only.label;
+                current.count = only.count;
+                current.children = only.children;
+            }
+            current.maxCount = current.count;
+            for (Node child : current.children.values()) {
+                current.maxCount = Math.max(current.maxCount, child.maxCount);
+            }
+        }
+    }
+
+    private static int commonPrefixLength(String label, String word, int offset) {
+        int length = 0;
+        while (length < label.length() && offset + length < word.length()
+                && label.charAt(length) == word.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static class Node {
+        private String label;
+        private TreeMap<Character, Node> children = new TreeMap<>();
+        private int count;
+        private int maxCount;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private static class Candidate {
+        private final int priority;
+        private final String text;
+        private final Node node;
+
+        private Candidate(int priority, String text, Node node) {
+            this.priority = priority;
+            this.text = text;
+            this.node = node;
+        }
+
+        private int getPriority() {
+            return priority;
+        }
+
+        private String getText() {
+            return text;
+        }
+    }
+}
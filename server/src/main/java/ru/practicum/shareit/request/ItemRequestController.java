@@ -1,14 +1,18 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.exception.PageableException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
+import static ru.practicum.shareit.util.HeaderConst.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
 
 @RestController
@@ -37,7 +41,18 @@ public class ItemRequestController {
     @GetMapping("all")
     public List<ItemRequestDto> getAll(@RequestHeader(SHAREIT_HEADER) Long userId,
                                        @RequestParam(name = "from", required = false) Integer from,
-                                       @RequestParam(name = "size", required = false) Integer size) throws PageableException {
-        return itemRequestService.getAll(userId, LimitPageable.createPageable(from, size));
+                                       @RequestParam(name = "size", required = false) Integer size,
+                                       @RequestParam(name = "after", required = false) String after,
+                                       HttpServletResponse response) throws PageableException {
+        if (after == null) {
+            return itemRequestService.getAll(userId, LimitPageable.createPageable(from, size));
+        }
+        Pageable pageable = LimitPageable.createCursorPageable(size);
+        List<ItemRequestDto> requests = itemRequestService.getAll(userId, PageCursor.decode(after), pageable);
+        String nextCursor = PageCursor.nextToken(requests, pageable, request -> PageCursor.ofId(request.getId()));
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return requests;
     }
 }
\ No newline at end of file
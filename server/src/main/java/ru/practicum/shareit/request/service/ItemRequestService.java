@@ -9,6 +9,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.srorage.ItemRequestRepository;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserServiceDataBase;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -42,4 +43,12 @@ public class ItemRequestService {
         return itemRequestRepository.findAllByRequesterIdIsNot(userId, pageable).stream()
                 .map(ItemRequestMapper::toRequestItemDto).collect(Collectors.toList());
     }
+
+    public List<ItemRequestDto> getAll(Long userId, PageCursor after, Pageable pageable) {
+        userService.findUserById(userId);
+        Long afterId = after == null ? Long.MAX_VALUE : after.getId();
+        return itemRequestRepository.findAllByRequesterIdIsNotAndIdLessThanOrderByIdDesc(userId, afterId, pageable)
+                .stream()
+                .map(ItemRequestMapper::toRequestItemDto).collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -12,4 +12,7 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> findAllByRequesterId(Long requesterId);
 
     Page<ItemRequest> findAllByRequesterIdIsNot(Long requesterId, Pageable pageable);
+
+    List<ItemRequest> findAllByRequesterIdIsNotAndIdLessThanOrderByIdDesc(Long requesterId, Long id,
+                                                                          Pageable pageable);
 }
\ No newline at end of file
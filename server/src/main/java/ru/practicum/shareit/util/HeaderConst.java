@@ -2,4 +2,5 @@ package ru.practicum.shareit.util;
 
 public  class HeaderConst {
     public static final String SHAREIT_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
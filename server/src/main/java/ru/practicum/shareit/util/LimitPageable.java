@@ -15,4 +15,11 @@ public class LimitPageable {
             return PageRequest.of(from / size, size);
         }
     }
-}
\ No newline at end of file
+
+    public static Pageable createCursorPageable(Integer size) throws PageableException {
+        if (size == null || size <= 0) {
+            throw new PageableException("Incorrect value");
+        }
+        return PageRequest.of(0, size);
+    }
+}
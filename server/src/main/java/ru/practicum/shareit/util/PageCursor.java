@@ -0,0 +1,58 @@
+package ru.practicum.shareit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.exception.PageableException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime sortKey;
+    private final Long id;
+
+    public static PageCursor ofId(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor decode(String token) throws PageableException {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new PageableException("Incorrect cursor");
+            }
+            String sortKey = value.substring(0, separator);
+            return new PageCursor(sortKey.isEmpty() ? null : LocalDateTime.parse(sortKey),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new PageableException("Incorrect cursor");
+        }
+    }
+
+    public static <T> String nextToken(List<T> page, Pageable pageable, Function<T, PageCursor> cursorOf) {
+        if (page.isEmpty() || pageable.isUnpaged() || page.size() < pageable.getPageSize()) {
+            return null;
+        }
+        return cursorOf.apply(page.get(page.size() - 1)).encode();
+    }
+
+    public String encode() {
+        String value = (sortKey == null ? "" : sortKey.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
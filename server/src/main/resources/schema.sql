@@ -1,8 +1,19 @@
-DROP TABLE IF EXISTS comments, requests, bookings, items, users;
+DROP TABLE IF EXISTS item_summary, comments, requests, bookings_archive, bookings, items, users;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id    BIGINT                                  NOT NULL,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(512) UNIQUE                     NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id)
@@ -10,7 +21,7 @@ CREATE TABLE IF NOT EXISTS users
 
 CREATE TABLE IF NOT EXISTS requests
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id           BIGINT                                  NOT NULL,
     description  VARCHAR(512),
     requester_id BIGINT                                  NOT NULL,
     created      TIMESTAMP default current_timestamp,
@@ -20,7 +31,7 @@ CREATE TABLE IF NOT EXISTS requests
 
 CREATE TABLE IF NOT EXISTS items
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id          BIGINT                                  NOT NULL,
     name        VARCHAR(255)                            NOT NULL,
     description VARCHAR(512)                            NOT NULL,
     owner_id    BIGINT                                  NOT NULL,
@@ -31,22 +42,51 @@ CREATE TABLE IF NOT EXISTS items
     CONSTRAINT fk_items_request_id FOREIGN KEY (request_id) REFERENCES requests (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+
 CREATE TABLE IF NOT EXISTS bookings
 (
-    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id         BIGINT                                  NOT NULL,
     start_time TIMESTAMP                               NOT NULL,
     end_time   TIMESTAMP                               NOT NULL,
     item_id    BIGINT                                  NOT NULL,
     booker_id  BIGINT                                  NOT NULL,
     status     VARCHAR(50)                             NOT NULL,
+    version    BIGINT                                  NOT NULL DEFAULT 0,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_bookings_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_bookings_booker_id FOREIGN KEY (booker_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start_end ON bookings (item_id, start_time, end_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_time);
+
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    id         BIGINT                                  NOT NULL,
+    start_time TIMESTAMP                               NOT NULL,
+    end_time   TIMESTAMP                               NOT NULL,
+    item_id    BIGINT                                  NOT NULL,
+    booker_id  BIGINT                                  NOT NULL,
+    status     VARCHAR(50)                             NOT NULL,
+    version    BIGINT                                  NOT NULL DEFAULT 0,
+    CONSTRAINT pk_bookings_archive PRIMARY KEY (id),
+    CONSTRAINT fk_bookings_archive_item_id FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_bookings_archive_booker_id FOREIGN KEY (booker_id) REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item ON bookings_archive (item_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_item_status_end
+    ON bookings_archive (booker_id, item_id, status, end_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_status_start ON bookings_archive (item_id, status, start_time);
+
 CREATE TABLE IF NOT EXISTS comments
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id        BIGINT                                  NOT NULL,
     text      VARCHAR(1024)                           NOT NULL,
     item_id   BIGINT                                  NOT NULL,
     author_id BIGINT                                  NOT NULL,
@@ -54,4 +94,26 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT pk_comments PRIMARY KEY (id),
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS item_summary
+(
+    item_id             BIGINT                                  NOT NULL,
+    last_booking_id     BIGINT,
+    last_booking_start  TIMESTAMP,
+    last_booking_end    TIMESTAMP,
+    last_booker_id      BIGINT,
+    last_booking_status VARCHAR(50),
+    next_booking_id     BIGINT,
+    next_booking_start  TIMESTAMP,
+    next_booking_end    TIMESTAMP,
+    next_booker_id      BIGINT,
+    next_booking_status VARCHAR(50),
+    comment_count       BIGINT                                  NOT NULL DEFAULT 0,
+    latest_comment_ids  VARCHAR(1024),
+    CONSTRAINT pk_item_summary PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_summary_item_id FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_summary_next_start ON item_summary (next_booking_start);
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingArchiverTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private BookingArchiver bookingArchiver;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingArchiver = new BookingArchiver(bookingRepository, archivedBookingRepository, transactionTemplate,
+                meterRegistry, 90, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void test01_archiveFinishedInBatches() {
+        when(bookingRepository.findIdsEndedBefore(any(), any()))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(bookingRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(bookingRepository.deleteAllByIdIn(List.of(3L))).thenReturn(1);
+        bookingArchiver.archiveFinished();
+        verify(archivedBookingRepository).copyFromLive(List.of(1L, 2L));
+        verify(archivedBookingRepository).copyFromLive(List.of(3L));
+        assertEquals(3.0, meterRegistry.get("shareit.booking.archived").counter().count());
+    }
+
+    @Test
+    void test02_nothingToArchive() {
+        when(bookingRepository.findIdsEndedBefore(any(), any())).thenReturn(List.of());
+        bookingArchiver.archiveFinished();
+        verify(archivedBookingRepository, never()).copyFromLive(any());
+        assertEquals(0.0, meterRegistry.get("shareit.booking.archived").counter().count());
+    }
+}
@@ -11,10 +11,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.BookingController;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
@@ -24,6 +28,7 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -38,7 +43,9 @@ import static org.mockito.Mockito.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -240,4 +247,68 @@ public class BookingControllerTest {
                         .characterEncoding(StandardCharsets.UTF_8))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void test15_getAllByUserIdWithCursor() throws Exception {
+        bookingDtoOut.setId(1L);
+        when(bookingService.getAllByUserId(1L, String.valueOf(State.ALL), null,
+                LimitPageable.createCursorPageable(1))).thenReturn(List.of(bookingDtoOut));
+        mvc.perform(get("/bookings/")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(header().string("X-Next-Cursor",
+                        new PageCursor(bookingDtoOut.getStart(), 1L).encode()));
+    }
+
+    @Test
+    void test16_approveAll() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(1L, true));
+        when(bookingService.approveAll(decisions, 1L))
+                .thenReturn(List.of(new BookingDecisionResultDto(1L, true, Status.APPROVED, null)));
+        mvc.perform(patch("/bookings/bulk")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(mapper.writeValueAsString(decisions)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1L), Long.class))
+                .andExpect(jsonPath("$[0].status", is(Status.APPROVED.name())));
+    }
+
+    @Test
+    void test17_createAll() throws Exception {
+        when(bookingService.createBookings(List.of(bookingDto), 1L)).thenReturn(List.of(bookingDtoOut));
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .content(mapper.writeValueAsString(List.of(bookingDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+
+    @Test
+    void test18_events() throws Exception {
+        when(bookingService.subscribe(1L)).thenReturn(new SseEmitter());
+        mvc.perform(get("/bookings/events")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void test19_getStatsByOwner() throws Exception {
+        when(bookingService.getStatsByOwnerId(1L)).thenReturn(new BookingStatsDto(3L, 1L, 1L, 1L, 2L, 0L));
+        mvc.perform(get("/bookings/owner/stats")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(3L), Long.class))
+                .andExpect(jsonPath("$.waiting", is(2L), Long.class));
+    }
+}
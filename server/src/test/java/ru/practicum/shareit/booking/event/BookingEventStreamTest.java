@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class BookingEventStreamTest {
+    private SimpleMeterRegistry meterRegistry;
+    private BookingEventStream bookingEventStream;
+    private Booking booking;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingEventStream = new BookingEventStream(meterRegistry, 1000);
+        User owner = User.builder().id(1L).name("owner").email("owner@owner.ru").build();
+        User booker = User.builder().id(2L).name("user").email("user@user.ru").build();
+        Item item = Item.builder().id(1L).name("item").description("test").available(true).owner(owner).build();
+        booking = Booking.builder().id(1L)
+                .startTime(LocalDateTime.now().plusDays(1)).endTime(LocalDateTime.now().plusDays(2))
+                .item(item).booker(booker).status(Status.WAITING).build();
+    }
+
+    @Test
+    void test01_subscribeRegistersEmitter() {
+        SseEmitter first = bookingEventStream.subscribe(1L);
+        SseEmitter second = bookingEventStream.subscribe(2L);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(2.0, meterRegistry.get("shareit.booking.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void test02_publishToSubscribers() {
+        bookingEventStream.subscribe(1L);
+        bookingEventStream.onBookingEvent(BookingEvent.of(BookingEventType.CREATED, booking));
+        bookingEventStream.onBookingEvent(BookingEvent.of(BookingEventType.APPROVED, booking));
+        assertEquals(1.0, meterRegistry.get("shareit.booking.events.subscribers").gauge().value());
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingIntervalIndexTest {
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1);
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setup() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.findAllByItem_IdAndStatusInAndEndTimeAfter(anyLong(), anyList(), any()))
+                .thenReturn(List.of());
+        index = new BookingIntervalIndex(bookingRepository, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void test01_loadsItemOnceAndPrunesEndedBookings() {
+        index.add(booking(1L, 1L, LocalDateTime.now().minusDays(1), LocalDateTime.now().minusSeconds(1)));
+        index.add(booking(2L, 1L, base, base.plusDays(1)));
+        assertThat(index.overlaps(1L, LocalDateTime.now().minusDays(1), LocalDateTime.now())).isFalse();
+        assertThat(index.overlaps(1L, base, base.plusHours(1))).isTrue();
+        verify(bookingRepository, times(1)).findAllByItem_IdAndStatusInAndEndTimeAfter(anyLong(), anyList(), any());
+    }
+
+    @Test
+    void test02_addIsUndoneOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.add(booking(1L, 1L, base, base.plusDays(1)));
+        assertThat(index.overlaps(1L, base, base.plusHours(1))).isTrue();
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(index.overlaps(1L, base, base.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void test03_removeWaitsForCommit() {
+        Booking booking = booking(1L, 1L, base, base.plusDays(1));
+        index.add(booking);
+        TransactionSynchronizationManager.initSynchronization();
+        index.remove(booking);
+        assertThat(index.overlaps(1L, base, base.plusHours(1))).isTrue();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(index.overlaps(1L, base, base.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void test04_evictsLeastRecentlyUsedItems() {
+        index.overlaps(1L, base, base.plusHours(1));
+        index.overlaps(2L, base, base.plusHours(1));
+        index.overlaps(1L, base, base.plusHours(1));
+        index.overlaps(3L, base, base.plusHours(1));
+        assertThat(index.size()).isEqualTo(2);
+        index.overlaps(1L, base, base.plusHours(1));
+        verify(bookingRepository, times(3)).findAllByItem_IdAndStatusInAndEndTimeAfter(anyLong(), anyList(), any());
+    }
+
+    @Test
+    void test05_isBookedFallsBackToTreeOutsideBitmapWindow() {
+        long baseSlot = BookingSlotBitmap.slotOf(base);
+        long farSlot = baseSlot + 3L * BookingSlotBitmap.MAX_SLOTS;
+        index.add(booking(1L, 1L, base, base.plusHours(1)));
+        index.add(booking(2L, 1L, BookingSlotBitmap.startOf(farSlot), BookingSlotBitmap.startOf(farSlot + 2)));
+        assertThat(index.isBooked(1L, baseSlot, baseSlot + 1)).isTrue();
+        assertThat(index.isBooked(1L, farSlot + 1, farSlot + 2)).isTrue();
+        assertThat(index.isBooked(1L, farSlot + 2, farSlot + 24)).isFalse();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private Booking booking(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder().id(id).item(Item.builder().id(itemId).build())
+                .startTime(start).endTime(end).status(Status.WAITING).build();
+    }
+}
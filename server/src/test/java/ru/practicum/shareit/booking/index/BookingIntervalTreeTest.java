@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class BookingIntervalTreeTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private BookingIntervalTree tree;
+
+    @BeforeEach
+    void setup() {
+        tree = new BookingIntervalTree();
+    }
+
+    @Test
+    void test01_overlapsEmptyTree() {
+        assertThat(tree.overlaps(base, base.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void test02_overlapsAdjacentAndInnerIntervals() {
+        tree.add(1L, base.plusDays(2), base.plusDays(4));
+        assertThat(tree.overlaps(base, base.plusDays(2))).isFalse();
+        assertThat(tree.overlaps(base.plusDays(4), base.plusDays(5))).isFalse();
+        assertThat(tree.overlaps(base.plusDays(3), base.plusDays(5))).isTrue();
+        assertThat(tree.overlaps(base.plusDays(1), base.plusDays(5))).isTrue();
+        assertThat(tree.overlaps(base.plusDays(2).plusHours(1), base.plusDays(2).plusHours(2))).isTrue();
+    }
+
+    @Test
+    void test03_overlapsLongIntervalHiddenBehindShortOnes() {
+        tree.add(1L, base, base.plusDays(100));
+        for (long i = 2; i < 50; i++) {
+            tree.add(i, base.plusDays(i), base.plusDays(i).plusHours(1));
+        }
+        assertThat(tree.overlaps(base.plusDays(60), base.plusDays(61))).isTrue();
+        tree.remove(1L, base);
+        assertThat(tree.overlaps(base.plusDays(60), base.plusDays(61))).isFalse();
+        assertThat(tree.overlaps(base.plusDays(10), base.plusDays(11))).isTrue();
+    }
+
+    @Test
+    void test04_addAndRemove() {
+        assertThat(tree.add(1L, base, base.plusDays(1))).isTrue();
+        assertThat(tree.add(1L, base, base.plusDays(1))).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+        assertThat(tree.remove(2L, base)).isFalse();
+        assertThat(tree.remove(1L, base)).isTrue();
+        assertThat(tree.size()).isEqualTo(0);
+        assertThat(tree.overlaps(base, base.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void test05_manyIntervals() {
+        for (long i = 0; i < 1000; i++) {
+            tree.add(i, base.plusHours(2 * i), base.plusHours(2 * i + 1));
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            tree.remove(i, base.plusHours(2 * i));
+        }
+        assertThat(tree.size()).isEqualTo(500);
+        assertThat(tree.overlaps(base.plusHours(1), base.plusHours(2))).isFalse();
+        assertThat(tree.overlaps(base, base.plusHours(1))).isFalse();
+        assertThat(tree.overlaps(base.plusHours(2), base.plusHours(3))).isTrue();
+        assertThat(tree.overlaps(base.plusHours(1999), base.plusHours(3000))).isFalse();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class BookingSlotBitmapTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private final long baseSlot = BookingSlotBitmap.slotOf(base);
+    private BookingSlotBitmap bitmap;
+
+    @BeforeEach
+    void setup() {
+        bitmap = new BookingSlotBitmap();
+    }
+
+    @Test
+    void test01_emptyBitmap() {
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 24)).isFalse();
+        assertThat(BookingSlotBitmap.startOf(baseSlot)).isEqualTo(base);
+    }
+
+    @Test
+    void test02_partialHoursBookWholeSlots() {
+        bitmap.add(1L, base.plusHours(2).plusMinutes(30), base.plusHours(4).plusMinutes(10));
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 2)).isFalse();
+        assertThat(bitmap.isBooked(baseSlot + 2, baseSlot + 3)).isTrue();
+        assertThat(bitmap.isBooked(baseSlot + 4, baseSlot + 5)).isTrue();
+        assertThat(bitmap.isBooked(baseSlot + 5, baseSlot + 24)).isFalse();
+    }
+
+    @Test
+    void test03_earlierBookingRebasesBitmap() {
+        bitmap.add(1L, base.plusDays(3), base.plusDays(3).plusHours(1));
+        bitmap.add(2L, base, base.plusHours(1));
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 1)).isTrue();
+        assertThat(bitmap.isBooked(baseSlot + 72, baseSlot + 73)).isTrue();
+        assertThat(bitmap.isBooked(baseSlot + 1, baseSlot + 72)).isFalse();
+    }
+
+    @Test
+    void test04_removeKeepsSharedSlots() {
+        bitmap.add(1L, base, base.plusHours(1).plusMinutes(30));
+        bitmap.add(2L, base.plusHours(1).plusMinutes(30), base.plusHours(3));
+        bitmap.remove(1L);
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 1)).isFalse();
+        assertThat(bitmap.isBooked(baseSlot + 1, baseSlot + 2)).isTrue();
+        bitmap.remove(2L);
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 3)).isFalse();
+    }
+
+    @Test
+    void test05_farBookingIsClampedToWindow() {
+        bitmap.add(1L, base, LocalDateTime.of(9999, 12, 31, 0, 0));
+        long windowEnd = baseSlot + BookingSlotBitmap.MAX_SLOTS;
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 1)).isTrue();
+        assertThat(bitmap.isBooked(windowEnd - 1, windowEnd)).isTrue();
+        assertThat(bitmap.covers(baseSlot, windowEnd)).isTrue();
+        assertThat(bitmap.covers(windowEnd, windowEnd + 1)).isFalse();
+        bitmap.remove(1L);
+        assertThat(bitmap.covers(windowEnd, windowEnd + 1)).isTrue();
+        assertThat(bitmap.isBooked(baseSlot, windowEnd)).isFalse();
+    }
+
+    @Test
+    void test06_removeAllRebasesOnce() {
+        bitmap.add(1L, base, base.plusHours(1));
+        bitmap.add(2L, base.plusHours(1).plusMinutes(30), base.plusHours(3));
+        bitmap.add(3L, base.plusDays(1), base.plusDays(1).plusHours(1));
+        bitmap.removeAll(List.of(1L, 2L, 404L));
+        assertThat(bitmap.isBooked(baseSlot, baseSlot + 24)).isFalse();
+        assertThat(bitmap.isBooked(baseSlot + 24, baseSlot + 25)).isTrue();
+    }
+}
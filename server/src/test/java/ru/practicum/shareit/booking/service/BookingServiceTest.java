@@ -1,39 +1,59 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventStream;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.BookingStatsView;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.PageableException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSummaryService;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
 
 @ExtendWith(MockitoExtension.class)
 public class BookingServiceTest {
@@ -43,6 +63,16 @@ public class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private BookingEventStream bookingEventStream;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ItemSummaryService itemSummaryService;
+    @Spy
+    private ItemBookingLocks itemBookingLocks = new ItemBookingLocks(new SimpleMeterRegistry(), 4);
     @InjectMocks
     private BookingService bookingService;
     private User owner;
@@ -75,6 +105,8 @@ public class BookingServiceTest {
         BookingDtoOut result = bookingService.createBooking(bookingDto, anyLong());
         assertEquals(bookingDtoOut, result);
         verify(bookingRepository).save(Mockito.any());
+        verify(bookingIntervalIndex).add(booking);
+        verifyNoInteractions(itemSummaryService);
     }
 
     @Test
@@ -109,32 +141,37 @@ public class BookingServiceTest {
 
     @Test
     void test05_getBooking() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findRecordById(anyLong())).thenReturn(Optional.of(booking));
         assertEquals(bookingDtoOut, bookingService.getBooking(1L, 1L));
-        verify(bookingRepository).findById(anyLong());
+        verify(bookingRepository).findRecordById(anyLong());
     }
 
     @Test
     void test06_getBookingWithIncorrectId() {
-        when(bookingRepository.findById(anyLong())).thenThrow(NotFoundException.class);
+        when(bookingRepository.findRecordById(anyLong())).thenThrow(NotFoundException.class);
         assertThrows(NotFoundException.class, () ->
                 bookingService.getBooking(1L, 1L));
     }
 
     @Test
     void test07_getBookingWrongUser() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findRecordById(anyLong())).thenReturn(Optional.of(booking));
         assertThrows(NotFoundException.class, () ->
                 bookingService.getBooking(1L, 404L));
     }
 
     @Test
     void test08_approveBooking() {
+        when(bookingRepository.updateStatusIfWaiting(1L, 1L, Status.APPROVED)).thenAnswer(invocation -> {
+            booking.setStatus(Status.APPROVED);
+            return 1;
+        });
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(Mockito.any())).thenReturn(booking);
         BookingDtoOut result = bookingService.approve(1L, 1L, true);
         assertEquals(Status.APPROVED, result.getStatus());
-        verify(bookingRepository).save(Mockito.any());
+        verify(bookingRepository).updateStatusIfWaiting(1L, 1L, Status.APPROVED);
+        verify(bookingRepository, Mockito.never()).save(Mockito.any());
+        verify(itemSummaryService).refreshBookings(List.of(item.getId()));
     }
 
     @Test
@@ -147,11 +184,14 @@ public class BookingServiceTest {
 
     @Test
     void test10_rejectBooking() {
+        when(bookingRepository.updateStatusIfWaiting(1L, 1L, Status.REJECTED)).thenAnswer(invocation -> {
+            booking.setStatus(Status.REJECTED);
+            return 1;
+        });
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(Mockito.any())).thenReturn(booking);
         BookingDtoOut result = bookingService.approve(1L, 1L, false);
         assertEquals(Status.REJECTED, result.getStatus());
-        verify(bookingRepository).save(Mockito.any());
+        verify(bookingIntervalIndex).remove(booking);
     }
 
     @Test
@@ -164,19 +204,18 @@ public class BookingServiceTest {
     @Test
     void test12_getAllByUser() {
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(anyLong()))
+        when(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(2L, Pageable.unpaged()))
                 .thenReturn(List.of(booking));
-        List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.ALL), Mockito.any());
+        List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.ALL), null);
         assertEquals(bookingDtoOut, result.get(0));
-        verify(bookingRepository).findAllByBooker_IdOrderByStartTimeDesc(anyLong());
+        verify(bookingRepository).findAllByBooker_IdOrderByStartTimeDesc(2L, Pageable.unpaged());
     }
 
     @Test
     void test13_getAllByUserWithPage() throws PageableException {
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
         when(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(2L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+                LimitPageable.createPageable(0, 5))).thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.ALL),
                 LimitPageable.createPageable(0, 5));
         assertEquals(bookingDtoOut, result.get(0));
@@ -200,10 +239,11 @@ public class BookingServiceTest {
     @Test
     void test16_getAllByOwner() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(anyLong())).thenReturn(List.of(booking));
-        List<BookingDtoOut> result = bookingService.getAllByOwnerId(anyLong(), String.valueOf(State.ALL), null);
+        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L, Pageable.unpaged()))
+                .thenReturn(List.of(booking));
+        List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.ALL), null);
         assertEquals(bookingDtoOut, result.get(0));
-        verify(bookingRepository).findByItem_Owner_IdOrderByIdDesc(anyLong());
+        verify(bookingRepository).findByItem_Owner_IdOrderByIdDesc(1L, Pageable.unpaged());
     }
 
     @Test
@@ -222,10 +262,9 @@ public class BookingServiceTest {
 
     @Test
     void test19_getAllByOwnerWithPage() throws PageableException {
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
         when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+                LimitPageable.createPageable(0, 5))).thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.ALL),
                 LimitPageable.createPageable(0, 5));
         assertEquals(bookingDtoOut, result.get(0));
@@ -237,10 +276,9 @@ public class BookingServiceTest {
     void test20_getAllByOwnerIfStateReject() throws PageableException {
         booking.setStatus(Status.REJECTED);
         bookingDtoOut.setStatus(Status.REJECTED);
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+        when(bookingRepository.findByItem_Owner_IdAndStatusOrderByIdDesc(1L, Status.REJECTED,
+                LimitPageable.createPageable(0, 5))).thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.REJECTED),
                 LimitPageable.createPageable(0, 5));
         assertFalse(result.isEmpty());
@@ -251,10 +289,9 @@ public class BookingServiceTest {
     void test20_getAllByOwnerIfStatePAST() throws PageableException {
         booking.setEndTime(LocalDateTime.now().minusDays(10));
         bookingDtoOut.setEnd(booking.getEndTime());
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+        when(bookingRepository.findByItem_Owner_IdAndEndTimeBeforeOrderByIdDesc(eq(1L), any(LocalDateTime.class),
+                eq(LimitPageable.createPageable(0, 5)))).thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.PAST),
                 LimitPageable.createPageable(0, 5));
         assertFalse(result.isEmpty());
@@ -263,10 +300,9 @@ public class BookingServiceTest {
 
     @Test
     void test20_getAllByOwnerIfStateFUTURE() throws PageableException {
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+        when(bookingRepository.findByItem_Owner_IdAndStartTimeAfterOrderByIdDesc(eq(1L), any(LocalDateTime.class),
+                eq(LimitPageable.createPageable(0, 5)))).thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.FUTURE),
                 LimitPageable.createPageable(0, 5));
         assertFalse(result.isEmpty());
@@ -279,13 +315,183 @@ public class BookingServiceTest {
         booking.setEndTime(LocalDateTime.now().plusDays(10));
         bookingDtoOut.setStart(booking.getStartTime());
         bookingDtoOut.setEnd(booking.getEndTime());
-        Page<Booking> bookingPage = new PageImpl<>(Collections.singletonList(booking));
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdOrderByIdDesc(1L,
-                LimitPageable.createPageable(0, 5))).thenReturn(bookingPage);
+        when(bookingRepository.findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterOrderByIdDesc(eq(1L),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(LimitPageable.createPageable(0, 5))))
+                .thenReturn(List.of(booking));
         List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.CURRENT),
                 LimitPageable.createPageable(0, 5));
         assertFalse(result.isEmpty());
         assertEquals(bookingDtoOut, result.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    void test21_getAllByUserIfStateWAITING() throws PageableException {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findAllByBooker_IdAndStatusOrderByStartTimeDesc(2L, Status.WAITING,
+                LimitPageable.createPageable(0, 5))).thenReturn(List.of(booking));
+        List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.WAITING),
+                LimitPageable.createPageable(0, 5));
+        assertEquals(bookingDtoOut, result.get(0));
+    }
+
+    @Test
+    void test22_getAllByUserIfStateCURRENT() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findAllByBooker_IdAndStartTimeBeforeAndEndTimeAfterOrderByStartTimeDesc(eq(2L),
+                any(LocalDateTime.class), any(LocalDateTime.class), eq(Pageable.unpaged())))
+                .thenReturn(Collections.emptyList());
+        assertTrue(bookingService.getAllByUserId(2L, String.valueOf(State.CURRENT), null).isEmpty());
+    }
+
+    @Test
+    void test23_getAllByUserWithCursor() throws PageableException {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findAllByBookerAfter(2L, booking.getStartTime(), 5L,
+                LimitPageable.createCursorPageable(5))).thenReturn(List.of(booking));
+        List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.ALL),
+                new PageCursor(booking.getStartTime(), 5L), LimitPageable.createCursorPageable(5));
+        assertEquals(bookingDtoOut, result.get(0));
+    }
+
+    @Test
+    void test24_getAllByUserFirstCursorPage() throws PageableException {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(bookingRepository.findAllByBooker_IdAndStatusOrderByStartTimeDesc(2L, Status.WAITING,
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id")))).thenReturn(List.of(booking));
+        List<BookingDtoOut> result = bookingService.getAllByUserId(2L, String.valueOf(State.WAITING), null,
+                LimitPageable.createCursorPageable(5));
+        assertEquals(bookingDtoOut, result.get(0));
+    }
+
+    @Test
+    void test25_getAllByUserWithIdOnlyCursor() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUserId(2L,
+                String.valueOf(State.ALL), PageCursor.ofId(5L), LimitPageable.createCursorPageable(5)));
+    }
+
+    @Test
+    void test26_getAllByOwnerWithCursor() throws PageableException {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.findByItem_Owner_IdAndIdLessThanOrderByIdDesc(1L, Long.MAX_VALUE,
+                LimitPageable.createCursorPageable(5))).thenReturn(List.of(booking));
+        List<BookingDtoOut> result = bookingService.getAllByOwnerId(1L, String.valueOf(State.ALL), null,
+                LimitPageable.createCursorPageable(5));
+        assertEquals(bookingDtoOut, result.get(0));
+    }
+
+    @Test
+    void test27_createBookingOverlapsExisting() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.overlaps(item.getId(), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+        assertThrows(ConflictException.class, () -> bookingService.createBooking(bookingDto, 2L));
+        verify(bookingRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void test28_approveAll() {
+        Booking approved = Booking.builder().id(2L)
+                .startTime(booking.getStartTime()).endTime(booking.getEndTime())
+                .item(item).booker(booker).status(Status.APPROVED).build();
+        Booking rejected = Booking.builder().id(3L)
+                .startTime(booking.getStartTime()).endTime(booking.getEndTime())
+                .item(item).booker(booker).status(Status.WAITING).build();
+        when(bookingRepository.findAllByIdInAndOwnerForUpdate(Set.of(1L, 2L, 3L, 404L), 1L))
+                .thenReturn(List.of(booking, approved, rejected));
+        List<BookingDecisionResultDto> result = bookingService.approveAll(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false),
+                new BookingDecisionDto(3L, false),
+                new BookingDecisionDto(404L, true)), 1L);
+        assertEquals(4, result.size());
+        assertEquals(new BookingDecisionResultDto(1L, true, Status.APPROVED, null), result.get(0));
+        assertEquals(new BookingDecisionResultDto(2L, false, Status.APPROVED, "Already approve"), result.get(1));
+        assertEquals(new BookingDecisionResultDto(3L, true, Status.REJECTED, null), result.get(2));
+        assertFalse(result.get(3).getUpdated());
+        verify(bookingRepository).updateStatusIfWaiting(List.of(1L), 1L, Status.APPROVED);
+        verify(bookingRepository).updateStatusIfWaiting(List.of(3L), 1L, Status.REJECTED);
+        verify(bookingIntervalIndex).remove(rejected);
+    }
+
+    @Test
+    void test29_approveAllDuplicateId() {
+        assertThrows(BadRequestException.class, () -> bookingService.approveAll(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(1L, false)), 1L));
+    }
+
+    @Test
+    void test30_createBookings() {
+        BookingDto second = BookingMapper.toBookingDto(booking);
+        second.setStart(booking.getEndTime());
+        second.setEnd(booking.getEndTime().plusDays(1));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        when(bookingRepository.saveAll(Mockito.anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<BookingDtoOut> result = bookingService.createBookings(List.of(bookingDto, second), 2L);
+        assertEquals(2, result.size());
+        assertEquals(Status.WAITING, result.get(1).getStatus());
+        verify(bookingRepository).saveAll(Mockito.anyList());
+        verify(bookingRepository).flush();
+        verify(bookingIntervalIndex, Mockito.times(2)).add(any());
+    }
+
+    @Test
+    void test31_createBookingsOverlapInBatch() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of(item));
+        assertThrows(ConflictException.class, () ->
+                bookingService.createBookings(List.of(bookingDto, bookingDto), 2L));
+        verify(bookingRepository, Mockito.never()).saveAll(Mockito.anyList());
+    }
+
+    @Test
+    void test32_createBookingsUnknownItem() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+        assertThrows(NotFoundException.class, () ->
+                bookingService.createBookings(List.of(bookingDto), 2L));
+    }
+
+    @Test
+    void test33_approvePublishesEvent() {
+        when(bookingRepository.updateStatusIfWaiting(1L, 1L, Status.APPROVED)).thenAnswer(invocation -> {
+            booking.setStatus(Status.APPROVED);
+            return 1;
+        });
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        bookingService.approve(1L, 1L, true);
+        ArgumentCaptor<BookingEvent> captor = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(BookingEventType.APPROVED, captor.getValue().getType());
+        assertEquals(2L, captor.getValue().getBookerId());
+        assertEquals(1L, captor.getValue().getOwnerId());
+    }
+
+    @Test
+    void test34_subscribeUnknownUser() {
+        when(userRepository.findById(5L)).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> bookingService.subscribe(5L));
+        verify(bookingEventStream, Mockito.never()).subscribe(anyLong());
+    }
+
+    @Test
+    void test35_getStatsByOwnerId() {
+        BookingStatsView stats = Mockito.mock(BookingStatsView.class);
+        when(stats.getTotal()).thenReturn(3L);
+        when(stats.getWaitingCount()).thenReturn(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(bookingRepository.countByOwnerGroupedByState(eq(1L), any())).thenReturn(stats);
+        BookingStatsDto result = bookingService.getStatsByOwnerId(1L);
+        assertEquals(3L, result.getAll());
+        assertEquals(1L, result.getWaiting());
+    }
+
+    @Test
+    void test36_getStatsByUnknownUser() {
+        when(userRepository.findById(5L)).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> bookingService.getStatsByUserId(5L));
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ItemBookingLocksTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemBookingLocks locks = new ItemBookingLocks(meterRegistry, 8);
+
+    @Test
+    void test01_withItemLockReturnsResult() {
+        assertThat(locks.withItemLock(1L, () -> "done")).isEqualTo("done");
+        assertThat(meterRegistry.counter("shareit.booking.item.lock.contended").count()).isEqualTo(0.0);
+    }
+
+    @Test
+    void test02_sameItemIsSerialized() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inside = new AtomicInteger();
+        try {
+            Future<?> first = executor.submit(() -> locks.withItemLock(1L, () -> {
+                inside.incrementAndGet();
+                locked.countDown();
+                await(release);
+                return inside.decrementAndGet();
+            }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Integer> second = executor.submit(() -> locks.withItemLock(1L, inside::get));
+            while (meterRegistry.counter("shareit.booking.item.lock.contended").count() == 0.0) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void test03_differentStripesDoNotContend() {
+        locks.withItemLock(1L, () -> locks.withItemLock(2L, () -> true));
+        assertThat(meterRegistry.counter("shareit.booking.item.lock.contended").count()).isEqualTo(0.0);
+    }
+
+    @Test
+    void test04_incorrectStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ItemBookingLocks(meterRegistry, 0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,7 +4,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
@@ -12,6 +16,7 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -21,6 +26,8 @@ public class BookingRepositoryTest {
     @Autowired
     private BookingRepository bookingRepository;
     @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
     private ItemRepository itemRepository;
@@ -55,16 +62,29 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void test01_findAllByBooker_IdAndEndTimeBefore() {
-        List<Booking> result = bookingRepository.findAllByBooker_IdAndEndTimeBefore(bookerId, LocalDateTime.now());
-        assertThat(result.size()).isEqualTo(2);
-        assertThat(result.get(0).getBooker()).isEqualTo(booker);
+    void test01_existsFinishedApprovedBooking() {
+        assertThat(bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(bookerId, itemId,
+                Status.APPROVED, LocalDateTime.now())).isFalse();
+        firstBooking.setStatus(Status.APPROVED);
+        bookingRepository.save(firstBooking);
+        assertThat(bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(bookerId, itemId,
+                Status.APPROVED, LocalDateTime.now())).isTrue();
+        assertThat(bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(bookerId, itemId,
+                Status.APPROVED, LocalDateTime.now().minusDays(3))).isFalse();
     }
 
     @Test
-    void test02_findAllByIncorrectBooker_IdAndEndTimeBefore() {
-        List<Booking> result = bookingRepository.findAllByBooker_IdAndEndTimeBefore(ownerId, LocalDateTime.now());
-        assertThat(result.isEmpty()).isTrue();
+    void test02_existsFinishedApprovedBookingInArchive() {
+        firstBooking.setStatus(Status.APPROVED);
+        bookingRepository.saveAndFlush(firstBooking);
+        archivedBookingRepository.copyFromLive(List.of(firstBooking.getId()));
+        bookingRepository.deleteAllByIdIn(List.of(firstBooking.getId()));
+        assertThat(bookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(bookerId, itemId,
+                Status.APPROVED, LocalDateTime.now())).isFalse();
+        assertThat(archivedBookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(bookerId, itemId,
+                Status.APPROVED, LocalDateTime.now())).isTrue();
+        assertThat(archivedBookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(ownerId, itemId,
+                Status.APPROVED, LocalDateTime.now())).isFalse();
     }
 
     @Test
@@ -94,15 +114,203 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void test06_getFirstByItemIdOrderByStartTimeAsc() {
+    void test06_findLastApprovedBooking() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(itemId,
+                Status.APPROVED, now)).isEmpty();
+        firstBooking.setStatus(Status.APPROVED);
+        bookingRepository.save(firstBooking);
+        assertThat(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(itemId,
+                Status.APPROVED, now)).contains(firstBooking);
+    }
+
+    @Test
+    void test07_findNextApprovedBooking() {
+        Booking later = saveBooking(5, Status.APPROVED);
+        Booking sooner = saveBooking(3, Status.APPROVED);
+        saveBooking(1, Status.WAITING);
+        assertThat(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeAfterOrderByStartTimeAscIdAsc(itemId,
+                Status.APPROVED, LocalDateTime.now())).contains(sooner);
+        assertThat(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeAfterOrderByStartTimeAscIdAsc(itemId,
+                Status.APPROVED, sooner.getStartTime())).contains(later);
+    }
+
+    @Test
+    void test08_findAllByBooker_IdAndEndTimeBeforeOrderByStartTimeDesc() {
+        List<BookingRecord> result = bookingRepository.findAllByBooker_IdAndEndTimeBeforeOrderByStartTimeDesc(bookerId,
+                LocalDateTime.now(), Pageable.unpaged());
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.get(0)).isEqualTo(booking);
+    }
+
+    @Test
+    void test09_findAllByBooker_IdAndStartTimeAfterOrderByStartTimeDesc() {
+        List<Booking> result = bookingRepository.findAllByBooker_IdAndStartTimeAfterOrderByStartTimeDesc(bookerId,
+                LocalDateTime.now(), Pageable.unpaged());
+        assertThat(result.isEmpty()).isTrue();
+    }
+
+    @Test
+    void test10_findByItem_Owner_IdAndStatusOrderByIdDesc() {
+        List<BookingRecord> result = bookingRepository.findByItem_Owner_IdAndStatusOrderByIdDesc(ownerId, Status.WAITING,
+                PageRequest.of(0, 1));
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(firstBooking);
+        result = bookingRepository.findByItem_Owner_IdAndStatusOrderByIdDesc(ownerId, Status.REJECTED,
+                Pageable.unpaged());
+        assertThat(result.isEmpty()).isTrue();
+    }
+
+    @Test
+    void test11_findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterOrderByIdDesc() {
+        LocalDateTime time = LocalDateTime.now().minusHours(36);
+        List<Booking> result = bookingRepository.findByItem_Owner_IdAndStartTimeBeforeAndEndTimeAfterOrderByIdDesc(
+                ownerId, time, time, Pageable.unpaged());
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(firstBooking);
+    }
 
-        Booking result = bookingRepository.getFirstByItemIdOrderByStartTimeAsc(itemId);
-        assertThat(result).isNotNull().isEqualTo(firstBooking);
+    @Test
+    void test12_findAllByBookerAfter() {
+        List<BookingRecord> result = bookingRepository.findAllByBookerAfter(bookerId,
+                booking.getStartTime().minusMinutes(1), booking.getId(), PageRequest.of(0, 10));
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(firstBooking);
     }
 
     @Test
-    void test07_getFirstByItemIdOrderByEndTimeDesc() {
-        Booking result = bookingRepository.getFirstByItemIdOrderByEndTimeDesc(itemId);
-        assertThat(result).isNotNull().isEqualTo(booking);
+    void test13_findByItem_Owner_IdAndIdLessThanOrderByIdDesc() {
+        List<BookingRecord> result = bookingRepository.findByItem_Owner_IdAndIdLessThanOrderByIdDesc(ownerId,
+                Long.MAX_VALUE, PageRequest.of(0, 1));
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0)).isEqualTo(firstBooking);
+        result = bookingRepository.findByItem_Owner_IdAndIdLessThanOrderByIdDesc(ownerId, firstBooking.getId(),
+                PageRequest.of(0, 1));
+        assertThat(result.get(0)).isEqualTo(booking);
+    }
+
+    @Test
+    void test14_findLastAndNextApprovedByItemIds() {
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.save(booking);
+        firstBooking.setStatus(Status.APPROVED);
+        bookingRepository.save(firstBooking);
+        saveBooking(1, Status.WAITING);
+        Booking next = saveBooking(2, Status.APPROVED);
+        saveBooking(4, Status.APPROVED);
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemBookingView> last = bookingRepository.findLastApprovedByItemIds(List.of(itemId, 404L), now);
+        assertThat(last.size()).isEqualTo(1);
+        assertThat(last.get(0).getId()).isEqualTo(booking.getId());
+        assertThat(last.get(0).getItemId()).isEqualTo(itemId);
+        assertThat(last.get(0).getBookerId()).isEqualTo(bookerId);
+        assertThat(last.get(0).getStatus()).isEqualTo(Status.APPROVED);
+        List<ItemBookingView> upcoming = bookingRepository.findNextApprovedByItemIds(List.of(itemId, 404L), now);
+        assertThat(upcoming.size()).isEqualTo(1);
+        assertThat(upcoming.get(0).getId()).isEqualTo(next.getId());
+    }
+
+    @Test
+    void test15_updateStatusIfWaiting() {
+        assertThat(bookingRepository.updateStatusIfWaiting(booking.getId(), bookerId, Status.APPROVED)).isEqualTo(0);
+        assertThat(bookingRepository.updateStatusIfWaiting(booking.getId(), ownerId, Status.APPROVED)).isEqualTo(1);
+        assertThat(bookingRepository.updateStatusIfWaiting(booking.getId(), ownerId, Status.REJECTED)).isEqualTo(0);
+        Booking result = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(result.getStatus()).isEqualTo(Status.APPROVED);
+        assertThat(result.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void test16_updateStatusIfWaitingForBatch() {
+        List<Booking> owned = bookingRepository.findAllByIdInAndOwnerForUpdate(
+                List.of(booking.getId(), firstBooking.getId(), 404L), ownerId);
+        assertThat(owned.size()).isEqualTo(2);
+        assertThat(bookingRepository.findAllByIdInAndOwnerForUpdate(List.of(booking.getId()), bookerId).isEmpty())
+                .isTrue();
+        assertThat(bookingRepository.updateStatusIfWaiting(List.of(booking.getId(), firstBooking.getId()), ownerId,
+                Status.REJECTED)).isEqualTo(2);
+        assertThat(bookingRepository.findById(firstBooking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Status.REJECTED);
+    }
+
+    @Test
+    void test17_saveAllAssignsSequenceIds() {
+        List<Booking> bookings = bookingRepository.saveAll(List.of(
+                Booking.builder().startTime(LocalDateTime.now().plusDays(1)).endTime(LocalDateTime.now().plusDays(2))
+                        .item(firstBooking.getItem()).booker(booker).status(Status.WAITING).build(),
+                Booking.builder().startTime(LocalDateTime.now().plusDays(3)).endTime(LocalDateTime.now().plusDays(4))
+                        .item(firstBooking.getItem()).booker(booker).status(Status.WAITING).build()));
+        bookingRepository.flush();
+        assertThat(bookings.get(0).getId()).isNotNull();
+        assertThat(bookings.get(1).getId()).isGreaterThan(bookings.get(0).getId());
+        assertThat(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(bookerId).size()).isEqualTo(4);
+    }
+
+    @Test
+    void test18_countGroupedByState() {
+        booking.setStatus(Status.REJECTED);
+        bookingRepository.save(booking);
+        BookingStatsView stats = bookingRepository.countByBookerGroupedByState(bookerId, LocalDateTime.now());
+        assertThat(stats.getTotal()).isEqualTo(2L);
+        assertThat(stats.getPastCount()).isEqualTo(2L);
+        assertThat(stats.getCurrentCount()).isEqualTo(0L);
+        assertThat(stats.getWaitingCount()).isEqualTo(1L);
+        assertThat(stats.getRejectedCount()).isEqualTo(1L);
+        BookingStatsView ownerStats = bookingRepository.countByOwnerGroupedByState(ownerId, LocalDateTime.now());
+        assertThat(ownerStats.getTotal()).isEqualTo(2L);
+        BookingStatsView empty = bookingRepository.countByOwnerGroupedByState(bookerId, LocalDateTime.now());
+        assertThat(empty.getTotal()).isEqualTo(0L);
+        assertThat(empty.getFutureCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void test19_pastQueriesSpanArchive() {
+        List<Long> ids = bookingRepository.findIdsEndedBefore(LocalDateTime.now().minusHours(12),
+                PageRequest.of(0, 10));
+        assertThat(ids).isEqualTo(List.of(firstBooking.getId()));
+        assertThat(archivedBookingRepository.copyFromLive(ids)).isEqualTo(1);
+        assertThat(bookingRepository.deleteAllByIdIn(ids)).isEqualTo(1);
+        assertThat(bookingRepository.findById(firstBooking.getId()).isPresent()).isFalse();
+        assertThat(archivedBookingRepository.findById(firstBooking.getId()).isPresent()).isTrue();
+        List<BookingRecord> past = bookingRepository.findAllByBooker_IdAndEndTimeBeforeOrderByStartTimeDesc(bookerId,
+                LocalDateTime.now(), Pageable.unpaged());
+        assertThat(past.size()).isEqualTo(2);
+        assertThat(past.get(1).getId()).isEqualTo(firstBooking.getId());
+        assertThat(bookingRepository.findByItem_Owner_IdAndEndTimeBeforeOrderByIdDesc(ownerId, LocalDateTime.now(),
+                Pageable.unpaged()).size()).isEqualTo(2);
+        assertThat(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(bookerId).size()).isEqualTo(1);
+        assertThat(bookingRepository.findAllByBooker_IdOrderByStartTimeDesc(bookerId, Pageable.unpaged()).size())
+                .isEqualTo(2);
+        assertThat(bookingRepository.findByItem_Owner_IdAndIdLessThanOrderByIdDesc(ownerId, Long.MAX_VALUE,
+                Pageable.unpaged()).size()).isEqualTo(2);
+        assertThat(bookingRepository.findByItem_Owner_IdAndStatusOrderByIdDesc(ownerId, firstBooking.getStatus(),
+                Pageable.unpaged()).get(0).getId()).isEqualTo(firstBooking.getId());
+        assertThat(bookingRepository.findRecordById(firstBooking.getId()).orElseThrow())
+                .isInstanceOf(ArchivedBooking.class);
+        assertThat(bookingRepository.countByBookerGroupedByState(bookerId, LocalDateTime.now()).getPastCount())
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void test20_findLastApprovedInArchive() {
+        firstBooking.setStatus(Status.APPROVED);
+        bookingRepository.save(firstBooking);
+        List<Long> ids = List.of(firstBooking.getId());
+        archivedBookingRepository.copyFromLive(ids);
+        bookingRepository.deleteAllByIdIn(ids);
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(archivedBookingRepository.findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(
+                itemId, Status.APPROVED, now).map(ArchivedBooking::getId)).contains(firstBooking.getId());
+        List<ItemBookingView> last = archivedBookingRepository.findLastApprovedByItemIds(List.of(itemId), now);
+        assertThat(last.size()).isEqualTo(1);
+        assertThat(last.get(0).getId()).isEqualTo(firstBooking.getId());
+    }
+
+    private Booking saveBooking(long startInDays, Status status) {
+        LocalDateTime start = LocalDateTime.now().plusDays(startInDays).truncatedTo(ChronoUnit.SECONDS);
+        return bookingRepository.save(Booking.builder()
+                .startTime(start)
+                .endTime(start.plusDays(1))
+                .item(itemRepository.findById(itemId).orElseThrow()).booker(booker).status(status).build());
     }
 }
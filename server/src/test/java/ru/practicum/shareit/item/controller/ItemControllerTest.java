@@ -6,33 +6,55 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import ru.practicum.shareit.item.ItemController;
+import ru.practicum.shareit.item.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.model.AvailabilityGranularity;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemServiceDataBase;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static ru.practicum.shareit.util.HeaderConst.NEXT_CURSOR_HEADER;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
 public class ItemControllerTest {
     @MockBean
     private ItemServiceDataBase itemService;
+    @MockBean
+    private ItemImportService itemImportService;
     @Autowired
     private ObjectMapper mapper;
     @Autowired
@@ -160,4 +182,109 @@ public class ItemControllerTest {
                 .andExpect(result -> assertThat(Objects.requireNonNull(result.getResolvedException()).getClass(),
                         is(NotFoundException.class)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void test09_getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .granularity(AvailabilityGranularity.HOUR)
+                .slots(List.of(new AvailabilitySlotDto(from, from.plusHours(1), false)))
+                .build();
+        when(itemService.getAvailability(1L, from, from.plusHours(1), "HOUR")).thenReturn(availability);
+        mvc.perform(get("/items/{itemId}/availability", 1)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-01T11:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity", is("HOUR")))
+                .andExpect(jsonPath("$.slots[0].available", is(false)));
+    }
+
+    @Test
+    void test10_searchItemsInPeriod() throws Exception {
+        ItemDto itemDto = ItemDto.builder().id(1).name("item")
+                .description("item_description").available(true).build();
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 10, 0);
+        when(itemService.searchItems("item", start, start.plusDays(2), null)).thenReturn(List.of(itemDto));
+        mvc.perform(get("/items/search")
+                        .param("text", "item")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-06T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+
+    @Test
+    void test11_searchItemsBySimilarity() throws Exception {
+        ItemDto itemDto = ItemDto.builder().id(1).name("item")
+                .description("item_description").available(true).build();
+        when(itemService.searchItems("itme", 0.3, null)).thenReturn(List.of(itemDto));
+        mvc.perform(get("/items/search")
+                        .param("text", "itme")
+                        .param("minSimilarity", "0.3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("item")));
+    }
+
+    @Test
+    void test12_suggestNames() throws Exception {
+        when(itemService.suggestNames("dr", 10)).thenReturn(List.of("drill"));
+        mvc.perform(get("/items/suggest")
+                        .param("prefix", "dr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("drill")));
+    }
+
+    @Test
+    void test13_searchItemsWithFacets() throws Exception {
+        ItemDto itemDto = ItemDto.builder().id(1).name("item")
+                .description("item_description").available(true).build();
+        when(itemService.searchItemsWithFacets("item", null)).thenReturn(new ItemSearchResultDto(List.of(itemDto),
+                new ItemSearchFacetsDto(2L, 1L, 1L, 0L, List.of(new OwnerFacetDto(1L, 2L)))));
+        mvc.perform(get("/items/search/faceted")
+                        .param("text", "item"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name", is("item")))
+                .andExpect(jsonPath("$.facets.unavailable", is(1)))
+                .andExpect(jsonPath("$.facets.owners[0].items", is(2)));
+    }
+
+    @Test
+    void test14_getCommentsWithCursor() throws Exception {
+        CommentDto commentDto = CommentDto.builder().id(3L).text("text").authorName("user")
+                .created(LocalDate.of(2030, 1, 4)).build();
+        when(itemService.getComments(1L, null, PageRequest.of(0, 1))).thenReturn(List.of(commentDto));
+        mvc.perform(get("/items/1/comments")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text", is("text")))
+                .andExpect(header().string(NEXT_CURSOR_HEADER,
+                        new PageCursor(LocalDate.of(2030, 1, 4).atStartOfDay(), 3L).encode()));
+    }
+
+    @Test
+    void test15_importItems() throws Exception {
+        String results = "{\"line\":1,\"id\":1,\"error\":null}\n";
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        when(itemImportService.importItems(eq(1L), eq(ItemImportFormat.CSV), any())).thenAnswer(invocation -> {
+            emitter.send(results.getBytes(StandardCharsets.UTF_8), MediaType.APPLICATION_NDJSON);
+            emitter.complete();
+            return emitter;
+        });
+        MvcResult result = mvc.perform(post("/items/import")
+                        .contentType(ItemImportFormat.CSV_VALUE)
+                        .header("X-Sharer-User-Id", 1)
+                        .content("name,description,available\ndrill,cordless drill,true\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(results));
+        mvc.perform(post("/items/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("X-Sharer-User-Id", 1)
+                        .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
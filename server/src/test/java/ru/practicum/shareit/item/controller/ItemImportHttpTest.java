@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static ru.practicum.shareit.util.HeaderConst.SHAREIT_HEADER;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ItemImportHttpTest {
+    private static final int LINES = 600_000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void test01_importLargerThanSocketBuffersOverHalfDuplexClient() {
+        User user = userRepository.save(User.builder().name("importer").email("importer@user.ru").build());
+        assertTimeoutPreemptively(Duration.ofSeconds(120), () -> {
+            // like the gateway relay, send the whole body before reading any of the response
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/items/import")
+                    .openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(8192);
+            connection.setRequestProperty("Content-Type", MediaType.APPLICATION_NDJSON_VALUE);
+            connection.setRequestProperty(SHAREIT_HEADER, String.valueOf(user.getId()));
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+                    StandardCharsets.UTF_8))) {
+                for (int i = 0; i < LINES; i++) {
+                    writer.write("{\"description\":\"no name\",\"available\":true}\n");
+                }
+            }
+            assertEquals(200, connection.getResponseCode());
+            long results = 0;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                while (reader.readLine() != null) {
+                    results++;
+                }
+            }
+            assertEquals(LINES, results);
+        });
+    }
+}
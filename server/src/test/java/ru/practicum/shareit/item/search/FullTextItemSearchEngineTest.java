@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FullTextItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private FullTextItemSearchEngine searchEngine;
+
+    @Test
+    void test01_toPrefixQuery() {
+        assertEquals("дрель:* & bosch:*", FullTextItemSearchEngine.toPrefixQuery("Дрель  BOSCH!"));
+        assertEquals("", FullTextItemSearchEngine.toPrefixQuery("&|!:*"));
+    }
+
+    @Test
+    void test02_search() {
+        when(itemRepository.findByFullText("drill:*", Pageable.unpaged())).thenReturn(List.of());
+        assertTrue(searchEngine.search("drill", Pageable.unpaged()).isEmpty());
+        verify(itemRepository).findByFullText("drill:*", Pageable.unpaged());
+    }
+
+    @Test
+    void test03_searchWithoutTokens() {
+        assertTrue(searchEngine.search("  ", Pageable.unpaged()).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void test04_searchSimilar() {
+        when(itemRepository.findBySimilarity("dril", Pageable.unpaged())).thenReturn(List.of());
+        assertTrue(searchEngine.searchSimilar("dril", 0.4, Pageable.unpaged()).isEmpty());
+        verify(itemRepository).setWordSimilarityThreshold("0.4");
+    }
+}
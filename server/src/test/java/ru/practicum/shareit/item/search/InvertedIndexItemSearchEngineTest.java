@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InvertedIndexItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private InvertedIndexItemSearchEngine searchEngine;
+    private Item drill;
+    private Item saw;
+    private Item hidden;
+
+    @BeforeEach
+    void setup() {
+        User owner = User.builder().id(1L).name("owner").email("owner@user.ru").build();
+        User other = User.builder().id(2L).name("other").email("other@user.ru").build();
+        drill = Item.builder().id(1L).name("Drill").description("cordless tool").available(true).owner(owner)
+                .build();
+        saw = Item.builder().id(2L).name("Saw").description("hand tool, no drill").available(true).owner(other)
+                .request(ItemRequest.builder().id(1L).build()).build();
+        hidden = Item.builder().id(3L).name("Drill press").description("broken").available(false).owner(other)
+                .build();
+        when(itemRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(drill, saw, hidden)));
+        searchEngine = new InvertedIndexItemSearchEngine(itemRepository);
+        searchEngine.bootstrap();
+    }
+
+    @Test
+    void test01_searchRanksNameMatchesAndSkipsUnavailable() {
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(saw, drill));
+        assertEquals(List.of(drill, saw), searchEngine.search("dri", Pageable.unpaged()));
+    }
+
+    @Test
+    void test02_searchHydratesOnlyRequestedPage() {
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(saw));
+        assertEquals(List.of(saw), searchEngine.search("TOOL", PageRequest.of(1, 1)));
+        verify(itemRepository).findAll(any(Pageable.class));
+        verify(itemRepository).findAllById(List.of(2L));
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void test03_indexUpdatesTermsAndAvailability() {
+        drill.setDescription("battery");
+        hidden.setAvailable(true);
+        searchEngine.index(drill);
+        searchEngine.index(hidden);
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(hidden));
+        assertEquals(List.of(hidden), searchEngine.search("drill broken", Pageable.unpaged()));
+        assertTrue(searchEngine.search("cordless", Pageable.unpaged()).isEmpty());
+    }
+
+    @Test
+    void test04_searchSimilarToleratesTypos() {
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(drill, saw));
+        assertEquals(List.of(drill, saw), searchEngine.searchSimilar("dril", 0.5, Pageable.unpaged()));
+        assertTrue(searchEngine.searchSimilar("hammer", 0.5, Pageable.unpaged()).isEmpty());
+    }
+
+    @Test
+    void test05_facetsCountAllMatches() {
+        assertEquals(new ItemSearchFacetsDto(3L, 2L, 1L, 1L,
+                        List.of(new OwnerFacetDto(2L, 2L), new OwnerFacetDto(1L, 1L))),
+                searchEngine.facets("drill"));
+        assertEquals(new ItemSearchFacetsDto(0L, 0L, 0L, 0L, List.of()), searchEngine.facets("hammer"));
+    }
+
+    @Test
+    void test06_searchSimilarSkipsTrigramsOfMostItems() {
+        for (long id = 10; id < 1210; id++) {
+            searchEngine.index(Item.builder().id(id).name("Item").description("tool").available(true)
+                    .owner(drill.getOwner()).build());
+        }
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(drill, saw));
+        assertEquals(List.of(drill, saw), searchEngine.searchSimilar("dril tool", 0.6, Pageable.unpaged()));
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemSearchCacheTest {
+    private MeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(meterRegistry, 2);
+    }
+
+    @Test
+    void test01_getCountsHitsAndMisses() {
+        assertTrue(cache.get("drill", null, Pageable.unpaged()).isEmpty());
+        cache.put("drill", null, Pageable.unpaged(), List.of(1L, 2L), 0);
+        assertEquals(Optional.of(List.of(1L, 2L)), cache.get("drill", null, Pageable.unpaged()));
+        assertTrue(cache.get("drill", null, PageRequest.of(0, 10)).isEmpty());
+        assertTrue(cache.get("drill", 0.3, Pageable.unpaged()).isEmpty());
+        assertEquals(1, meterRegistry.get("shareit.search.cache.gets").tag("result", "hit").counter().count());
+        assertEquals(3, meterRegistry.get("shareit.search.cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void test02_evictsLeastRecentlyUsed() {
+        cache.put("drill", null, Pageable.unpaged(), List.of(1L), 0);
+        cache.put("saw", null, Pageable.unpaged(), List.of(2L), 0);
+        cache.get("drill", null, Pageable.unpaged());
+        cache.put("tent", null, Pageable.unpaged(), List.of(3L), 0);
+        assertEquals(Optional.of(List.of(1L)), cache.get("drill", null, Pageable.unpaged()));
+        assertTrue(cache.get("saw", null, Pageable.unpaged()).isEmpty());
+        assertEquals(1, meterRegistry.get("shareit.search.cache.evictions").counter().count());
+    }
+
+    @Test
+    void test03_invalidateDropsOnlyAffectedQueries() {
+        cache.put("drill", null, Pageable.unpaged(), List.of(1L), 0);
+        cache.put("tent", null, Pageable.unpaged(), List.of(), 0);
+        Item drill = Item.builder().id(1L).name("Drill").description("renamed").available(false).build();
+        cache.invalidate(drill, drill);
+        assertTrue(cache.get("drill", null, Pageable.unpaged()).isEmpty());
+        assertEquals(Optional.of(List.of()), cache.get("tent", null, Pageable.unpaged()));
+        Item tent = Item.builder().id(2L).name("Big tent").description("for four").available(true).build();
+        cache.invalidate(tent, tent);
+        assertTrue(cache.get("tent", null, Pageable.unpaged()).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void test04_invalidateDropsEveryPageOfAffectedQuery() {
+        cache = new ItemSearchCache(meterRegistry, 10);
+        cache.put("drill", null, PageRequest.of(0, 2), List.of(1L, 2L), 0);
+        cache.put("drill", null, PageRequest.of(1, 2), List.of(3L, 4L), 0);
+        cache.put("saw", null, PageRequest.of(0, 2), List.of(5L), 0);
+        Item hammer = Item.builder().id(1L).name("Hammer").description("renamed").available(false).build();
+        cache.invalidate(hammer, hammer);
+        assertTrue(cache.get("drill", null, PageRequest.of(1, 2)).isEmpty());
+        assertEquals(Optional.of(List.of(5L)), cache.get("saw", null, PageRequest.of(0, 2)));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void test05_invalidateMatchesPreviousState() {
+        cache = new ItemSearchCache(meterRegistry, 10);
+        cache.put("drill", null, PageRequest.of(1, 2), List.of(3L, 4L), 0);
+        Item before = Item.builder().id(1L).name("Drill").description("cordless").available(true).build();
+        Item after = Item.builder().id(1L).name("Hammer").description("cordless").available(true).build();
+        cache.invalidate(before, after);
+        assertTrue(cache.get("drill", null, PageRequest.of(1, 2)).isEmpty());
+    }
+
+    @Test
+    void test06_putIgnoresResultsOlderThanInvalidation() {
+        long generation = cache.generation();
+        Item tent = Item.builder().id(2L).name("Tent").description("for four").available(true).build();
+        cache.invalidate(tent, tent);
+        cache.put("drill", null, Pageable.unpaged(), List.of(1L), generation);
+        assertTrue(cache.get("drill", null, Pageable.unpaged()).isEmpty());
+        cache.put("drill", null, Pageable.unpaged(), List.of(1L), cache.generation());
+        assertEquals(Optional.of(List.of(1L)), cache.get("drill", null, Pageable.unpaged()));
+    }
+}
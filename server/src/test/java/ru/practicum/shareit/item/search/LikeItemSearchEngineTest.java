@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LikeItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private LikeItemSearchEngine searchEngine;
+
+    @Test
+    void test01_searchSimilarScoresCandidatesByTrigrams() {
+        Item drill = Item.builder().id(1L).name("Drill").description("cordless tool").available(true).build();
+        Item saw = Item.builder().id(2L).name("Saw").description("hand tool, no drill").available(true).build();
+        Item grill = Item.builder().id(3L).name("Grill").description("charcoal").available(true).build();
+        when(itemRepository.findItemByText("dri", PageRequest.of(0, 1000))).thenReturn(List.of(saw, drill));
+        when(itemRepository.findItemByText("ril", PageRequest.of(0, 1000))).thenReturn(List.of(drill, grill));
+        assertEquals(List.of(drill, saw), searchEngine.searchSimilar("dril", 0.3, Pageable.unpaged()));
+        assertEquals(List.of(saw), searchEngine.searchSimilar("dril", 0.3, PageRequest.of(1, 1)));
+        verify(itemRepository, times(2)).findItemByText("dri", PageRequest.of(0, 1000));
+    }
+
+    @Test
+    void test02_searchSimilarWithoutTokens() {
+        assertTrue(searchEngine.searchSimilar("  ", 0.3, Pageable.unpaged()).isEmpty());
+        verifyNoInteractions(itemRepository);
+    }
+}
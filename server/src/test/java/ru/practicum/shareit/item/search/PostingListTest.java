@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PostingListTest {
+    @Test
+    void test01_addKeepsIdsSorted() {
+        PostingList postingList = new PostingList();
+        postingList.add(5);
+        postingList.add(300);
+        postingList.add(1_000_000);
+        postingList.add(42);
+        assertFalse(postingList.add(300));
+        assertArrayEquals(new long[]{5, 42, 300, 1_000_000}, postingList.toArray());
+        assertEquals(4, postingList.size());
+    }
+
+    @Test
+    void test02_remove() {
+        PostingList postingList = new PostingList();
+        for (long id = 1; id <= 100; id++) {
+            postingList.add(id * 3);
+        }
+        assertTrue(postingList.remove(150));
+        assertFalse(postingList.remove(151));
+        assertEquals(99, postingList.size());
+        postingList.add(301);
+        assertEquals(301, postingList.toArray()[99]);
+    }
+
+    @Test
+    void test03_orInto() {
+        PostingList postingList = new PostingList();
+        postingList.add(2);
+        postingList.add(7);
+        BitSet bits = new BitSet();
+        bits.set(3);
+        postingList.orInto(bits);
+        assertEquals("{2, 3, 7}", bits.toString());
+    }
+}
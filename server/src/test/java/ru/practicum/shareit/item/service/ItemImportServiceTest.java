@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemImportFormat;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
+import ru.practicum.shareit.request.srorage.ItemRequestRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemImportServiceTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSummaryService itemSummaryService;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+            .build();
+    private final User owner = User.builder().id(1L).name("owner").email("owner@owner.ru").build();
+    private ItemImportService itemImportService;
+    private ItemSearchCache itemSearchCache;
+    private long nextId;
+
+    @BeforeEach
+    void setup() {
+        itemSearchCache = new ItemSearchCache(new SimpleMeterRegistry(), 10);
+        itemImportService = new ItemImportService(itemRepository, userRepository, itemRequestRepository,
+                itemSummaryService, itemSearchEngine, itemNameSuggester, itemSearchCache, transactionTemplate,
+                mapper, 2, 60000, 1);
+        nextId = 100;
+    }
+
+    @Test
+    void test01_importNdjsonInBatches() throws IOException {
+        stubInsert();
+        String body = "{\"name\":\"drill\",\"description\":\"cordless drill\",\"available\":true}\n" +
+                "\n" +
+                "{\"name\":\"\",\"description\":\"no name\",\"available\":true}\n" +
+                "{\"name\":\"saw\",\"description\":\"hand saw\",\"available\":false}\n" +
+                "not json\n";
+        List<ItemImportResultDto> results = importItems(ItemImportFormat.NDJSON, body);
+        assertEquals(List.of(1L, 3L, 4L, 5L), results.stream().map(ItemImportResultDto::getLine)
+                .collect(Collectors.toList()));
+        assertEquals(100L, results.get(0).getId());
+        assertEquals("Name is required", results.get(1).getError());
+        assertEquals(101L, results.get(2).getId());
+        assertNull(results.get(2).getError());
+        assertNull(results.get(3).getId());
+        verify(itemRepository, times(2)).saveAllAndFlush(anyList());
+        verify(itemSummaryService).createAll(List.of(100L));
+        verify(itemSummaryService).createAll(List.of(101L));
+        verify(itemSearchEngine, times(2)).index(any());
+        assertEquals(1, itemSearchCache.generation());
+    }
+
+    @Test
+    void test02_importCsvChecksRequests() throws IOException {
+        stubInsert();
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of());
+        String body = "name,description,available,requestId\n" +
+                "drill,\"cordless, 18V\",true,\n" +
+                "saw,hand saw,maybe,\n" +
+                "ladder,tall ladder,true,7\n";
+        List<ItemImportResultDto> results = importItems(ItemImportFormat.CSV, body);
+        assertEquals(3, results.size());
+        assertEquals(100L, results.get(0).getId());
+        assertEquals("Available must be true or false", results.get(1).getError());
+        assertEquals("Item request not found", results.get(2).getError());
+        verify(itemNameSuggester).index(any());
+    }
+
+    @Test
+    void test03_importCsvWithoutRequiredColumns() throws IOException {
+        List<ItemImportResultDto> results = importItems(ItemImportFormat.CSV, "name,available\ndrill,true\n");
+        assertEquals(1, results.size());
+        assertEquals(1L, results.get(0).getLine());
+        verify(itemRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void test04_importForUnknownUser() {
+        assertThrows(NotFoundException.class, () -> itemImportService.importItems(404L, ItemImportFormat.NDJSON,
+                new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void test05_failedBatchKeepsLineErrors() throws IOException {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<List<Item>>>getArgument(0).doInTransaction(null));
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of());
+        when(itemRepository.saveAllAndFlush(anyList())).thenThrow(new IllegalStateException("constraint"));
+        String body = "name,description,available,requestId\n" +
+                "drill,cordless drill,true,\n" +
+                "ladder,tall ladder,true,7\n";
+        List<ItemImportResultDto> results = importItems(ItemImportFormat.CSV, body);
+        assertEquals("Batch insert failed", results.get(0).getError());
+        assertEquals("Item request not found", results.get(1).getError());
+        verify(itemSearchEngine, never()).index(any());
+    }
+
+    private void stubInsert() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<List<Item>>>getArgument(0).doInTransaction(null));
+        when(itemRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Item> saved = new ArrayList<>(invocation.<List<Item>>getArgument(0));
+            saved.forEach(item -> item.setId(nextId++));
+            return saved;
+        });
+    }
+
+    private List<ItemImportResultDto> importItems(ItemImportFormat format, String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        itemImportService.importItems(owner, format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                out);
+        List<ItemImportResultDto> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, ItemImportResultDto.class));
+        }
+        return results;
+    }
+}
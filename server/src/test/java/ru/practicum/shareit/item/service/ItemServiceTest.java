@@ -7,9 +7,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import ru.practicum.shareit.booking.model.Booking;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.index.BookingSlotBitmap;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -17,11 +22,20 @@ import ru.practicum.shareit.exception.PageableException;
 import ru.practicum.shareit.item.CommentMapper;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.srorage.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
@@ -29,6 +43,7 @@ import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.storage.UserRepository;
 import ru.practicum.shareit.util.LimitPageable;
+import ru.practicum.shareit.util.PageCursor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -36,8 +51,11 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 public class ItemServiceTest {
@@ -52,7 +70,19 @@ public class ItemServiceTest {
     @Mock
     private BookingRepository bookingRepository;
     @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private ItemSummaryService itemSummaryService;
     @InjectMocks
     private ItemServiceDataBase itemService;
     private User user;
@@ -77,6 +107,7 @@ public class ItemServiceTest {
         ItemDto result = itemService.createItem(itemDto, 1);
         assertEquals(result, itemDto);
         verify(itemRepository).save(item);
+        verify(itemSummaryService).create(item.getId());
     }
 
     @Test
@@ -101,17 +132,19 @@ public class ItemServiceTest {
     @Test
     void test05_getItemsByOwner() {
         when(userService.findUserById(1L)).thenReturn(UserMapper.toUserDto(user));
-        when(itemRepository.findAllByOwner(user)).thenReturn(List.of(item));
+        when(itemRepository.findAllByOwner_IdOrderByIdAsc(1L, Pageable.unpaged())).thenReturn(List.of(item));
         List<ItemDto> resultList = itemService.getAllItemsByUserId(1L, null);
         assertEquals(itemDto.getName(), resultList.get(0).getName());
         assertEquals(itemDto.getId(), resultList.get(0).getId());
-        verify(itemRepository).findAllByOwner(user);
+        verify(itemRepository).findAllByOwner_IdOrderByIdAsc(1L, Pageable.unpaged());
     }
 
     @Test
     void test06_getItemsWithIncorrectOwner() {
         assertThrows(NotFoundException.class, () -> itemService.getAllItemsByUserId(1L, null));
-        verify(userService).findUserById(1L);
+        assertThrows(NotFoundException.class, () -> itemService.getAllItemsByUserId(1L, PageCursor.ofId(7L),
+                PageRequest.of(0, 5)));
+        verify(userService, Mockito.times(2)).findUserById(1L);
     }
 
     @Test
@@ -131,9 +164,10 @@ public class ItemServiceTest {
 
     @Test
     void test09_searchItem() {
-        when(itemRepository.findItemByText("item")).thenReturn(List.of(item));
+        when(itemSearchEngine.search("item", Pageable.unpaged())).thenReturn(List.of(item));
         assertEquals(itemDto, itemService.searchItems("item", null).get(0));
-        verify(itemRepository).findItemByText("item");
+        verify(itemSearchEngine).search("item", Pageable.unpaged());
+        verify(itemSearchCache).put("item", null, Pageable.unpaged(), List.of(item.getId()), 0L);
     }
 
     @Test
@@ -146,12 +180,13 @@ public class ItemServiceTest {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         Comment comment = Comment.builder().item(item).author(user).text("comment").build();
-        when(bookingRepository.findAllByBooker_IdAndEndTimeBefore(Mockito.any(), Mockito.any()))
-                .thenReturn(List.of(Booking.builder().id(1L).item(item).build()));
+        when(archivedBookingRepository.existsByBooker_IdAndItem_IdAndStatusAndEndTimeBefore(eq(1L), eq(1L),
+                eq(Status.APPROVED), any(LocalDateTime.class))).thenReturn(true);
         when(commentRepository.save(Mockito.any())).thenReturn(comment);
         CommentDto result = itemService.addComment(CommentMapper.commentDto(comment), 1L, 1L);
         assertEquals(comment.getText(), result.getText());
         verify(commentRepository).save(Mockito.any());
+        verify(itemSummaryService).addComment(comment);
     }
 
     @Test
@@ -166,17 +201,14 @@ public class ItemServiceTest {
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         Comment comment = Comment.builder().item(item).author(user).text("comment").build();
-        when(bookingRepository.findAllByBooker_IdAndEndTimeBefore(Mockito.any(), Mockito.any()))
-                .thenReturn(new ArrayList<>());
         assertThrows(BadRequestException.class, () ->
                 itemService.addComment(CommentMapper.commentDto(comment), 1L, 1L));
     }
 
     @Test
     void test14_findItemWithPage() throws PageableException {
-        Page<Item> itemPage = new PageImpl<>(Collections.singletonList(item));
-        when(itemRepository.findItemByText("item", LimitPageable.createPageable(0, 5)))
-                .thenReturn(itemPage);
+        when(itemSearchEngine.search("item", LimitPageable.createPageable(0, 5)))
+                .thenReturn(Collections.singletonList(item));
         List<ItemDto> result = itemService.searchItems("item", LimitPageable.createPageable(0, 5));
         assertFalse(result.isEmpty());
         assertEquals(itemDto, result.get(0));
@@ -196,6 +228,9 @@ public class ItemServiceTest {
         when(itemRepository.save(item)).thenReturn(item);
         ItemDto result = itemService.createItem(itemDto, 1L);
         assertEquals(result, itemDto);
+        verify(itemSearchEngine).index(item);
+        verify(itemNameSuggester).index(item);
+        verify(itemSearchCache).invalidate(item, item);
     }
 
     @Test
@@ -206,15 +241,150 @@ public class ItemServiceTest {
 
     @Test
     void test17_getAllItemsByUserIdWithPage() throws PageableException {
-        Page<Item> itemPage = new PageImpl<>(Collections.singletonList(item));
-        when(itemRepository.findAllByOwner(user, LimitPageable.createPageable(0, 5))).thenReturn(itemPage);
+        when(itemRepository.findAllByOwner_IdOrderByIdAsc(1L, LimitPageable.createPageable(0, 5)))
+                .thenReturn(Collections.singletonList(item));
         Comment comment = Comment.builder().item(item).author(user).text("text").created(LocalDate.now()).build();
-        when(commentRepository.findByItem_IdOrderByCreatedDesc(item.getId())).thenReturn((List.of(comment)));
+        comment.setId(5L);
+        ItemSummary summary = ItemSummary.builder().itemId(item.getId()).commentCount(1)
+                .latestCommentIds(List.of(5L)).build();
+        when(itemSummaryService.findByItemIds(List.of(item.getId()))).thenReturn(Map.of(item.getId(), summary));
+        when(itemSummaryService.latestCommentIds(summary)).thenReturn(List.of(5L));
+        when(commentRepository.findAllWithAuthorByIdIn(List.of(5L))).thenReturn(List.of(comment));
         when(userService.findUserById(1L)).thenReturn(UserMapper.toUserDto(user));
         List<ItemDto> result = itemService.getAllItemsByUserId(1L,
                 LimitPageable.createPageable(0, 5));
-        itemDto.setComments(Collections.singleton(CommentMapper.commentDto(comment)));
+        itemDto.setComments(List.of(CommentMapper.commentDto(comment)));
         assertFalse(result.isEmpty());
         assertEquals(result.get(0), itemDto);
     }
+
+    @Test
+    void test18_getAllItemsByUserIdWithBookings() {
+        BookingSnapshot booking = BookingSnapshot.builder().bookingId(1L).bookerId(2L)
+                .startTime(LocalDateTime.now().minusDays(2)).endTime(LocalDateTime.now().minusDays(1))
+                .status(Status.APPROVED).build();
+        when(userService.findUserById(1L)).thenReturn(UserMapper.toUserDto(user));
+        when(itemRepository.findAllByOwner_IdOrderByIdAsc(1L, Pageable.unpaged())).thenReturn(List.of(item));
+        when(itemSummaryService.findByItemIds(List.of(item.getId()))).thenReturn(Map.of(item.getId(),
+                ItemSummary.builder().itemId(item.getId()).lastBooking(booking).build()));
+        List<ItemDto> result = itemService.getAllItemsByUserId(1L, null);
+        assertEquals(1L, result.get(0).getLastBooking().getId());
+        assertEquals(2L, result.get(0).getLastBooking().getBookerId());
+        assertNull(result.get(0).getNextBooking());
+        assertTrue(result.get(0).getComments().isEmpty());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void test19_getAvailability() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withHour(10).withMinute(15);
+        long slot = BookingSlotBitmap.slotOf(from);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.isBooked(Mockito.eq(1L), Mockito.anyLong(), Mockito.anyLong())).thenReturn(false);
+        when(bookingIntervalIndex.isBooked(1L, slot + 1, slot + 2)).thenReturn(true);
+        ItemAvailabilityDto result = itemService.getAvailability(1L, from, from.plusHours(2), "HOUR");
+        assertEquals(3, result.getSlots().size());
+        assertEquals(from.withMinute(0).withSecond(0).withNano(0), result.getSlots().get(0).getStart());
+        assertTrue(result.getSlots().get(0).getAvailable());
+        assertFalse(result.getSlots().get(1).getAvailable());
+        assertTrue(result.getSlots().get(2).getAvailable());
+    }
+
+    @Test
+    void test20_getAvailabilityIncorrectRange() {
+        LocalDateTime from = LocalDateTime.now();
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, from, from, "HOUR"));
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, from, from.plusDays(1),
+                "MINUTE"));
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, from, from.plusYears(1),
+                "HOUR"));
+    }
+
+    @Test
+    void test21_searchItemsInPeriod() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        when(itemRepository.findAvailableItemByText("item", start, start.plusDays(2), Pageable.unpaged()))
+                .thenReturn(List.of(item));
+        assertEquals(List.of(itemDto), itemService.searchItems("item", start, start.plusDays(2), null));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("item", start, null, null));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("item", start, start, null));
+    }
+
+    @Test
+    void test22_searchItemsBySimilarity() {
+        when(itemSearchEngine.searchSimilar("itme", 0.3, Pageable.unpaged())).thenReturn(List.of(item));
+        assertEquals(List.of(itemDto), itemService.searchItems("itme", 0.3, null));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("itme", 0, null));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("itme", 1.5, null));
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("itme", Double.NaN, null));
+    }
+
+    @Test
+    void test23_suggestNames() {
+        when(itemNameSuggester.suggest("dr", 5)).thenReturn(List.of("drill", "driver"));
+        assertEquals(List.of("drill", "driver"), itemService.suggestNames(" dr ", 5));
+        assertTrue(itemService.suggestNames("  ", 5).isEmpty());
+        assertTrue(itemService.suggestNames("dr", 0).isEmpty());
+        itemService.suggestNames("dr", 100_000);
+        verify(itemNameSuggester).suggest("dr", 50);
+    }
+
+    @Test
+    void test24_searchItemFromCache() {
+        when(itemSearchCache.get("item", null, Pageable.unpaged())).thenReturn(Optional.of(List.of(item.getId())));
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+        assertEquals(List.of(itemDto), itemService.searchItems(" ITEM", null));
+        verifyNoInteractions(itemSearchEngine);
+    }
+
+    @Test
+    void test25_searchItemsWithFacets() {
+        ItemSearchFacetsDto facets = new ItemSearchFacetsDto(2L, 1L, 1L, 0L, List.of(new OwnerFacetDto(1L, 2L)));
+        when(itemSearchEngine.search("item", Pageable.unpaged())).thenReturn(List.of(item));
+        when(itemSearchEngine.facets("item")).thenReturn(facets);
+        assertEquals(new ItemSearchResultDto(List.of(itemDto), facets),
+                itemService.searchItemsWithFacets("Item", null));
+        assertEquals(0L, itemService.searchItemsWithFacets(" ", null).getFacets().getTotal());
+    }
+
+    @Test
+    void test26_getCommentsByCursor() {
+        Comment comment = Comment.builder().id(3L).item(item).author(user).text("text").created(LocalDate.now())
+                .build();
+        PageCursor after = new PageCursor(LocalDate.now().atStartOfDay(), 7L);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(commentRepository.findPageByItemIdAfter(1L, LocalDate.now(), 7L, PageRequest.of(0, 5)))
+                .thenReturn(List.of(comment));
+        assertEquals(List.of(CommentMapper.commentDto(comment)),
+                itemService.getComments(1L, after, PageRequest.of(0, 5)));
+        assertThrows(BadRequestException.class,
+                () -> itemService.getComments(1L, PageCursor.ofId(7L), PageRequest.of(0, 5)));
+        assertThrows(NotFoundException.class, () -> itemService.getComments(404L, null, PageRequest.of(0, 5)));
+    }
+
+    @Test
+    void test27_createItemIndexesAfterCommit() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(itemRepository.save(Mockito.any())).thenReturn(item);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemService.createItem(itemDto, 1);
+            verifyNoInteractions(itemSearchEngine, itemNameSuggester, itemSearchCache);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(itemSearchEngine).index(item);
+        verify(itemNameSuggester).index(item);
+        verify(itemSearchCache).invalidate(item, item);
+    }
+
+    @Test
+    void test28_updateItemInvalidatesCacheOnPreviousState() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.save(Mockito.any())).thenReturn(item);
+        itemService.updateItem(ItemDto.builder().name("renamed").available(false).build(), 1, 1);
+        verify(itemSearchCache).invalidate(Mockito.argThat(before -> before.getName().equals("item")
+                && before.getAvailable()), eq(item));
+    }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSummaryRefresherTest {
+    @Mock
+    private ItemSummaryService itemSummaryService;
+    private ItemSummaryRefresher itemSummaryRefresher;
+
+    @BeforeEach
+    void setup() {
+        itemSummaryRefresher = new ItemSummaryRefresher(itemSummaryService, 2);
+    }
+
+    @Test
+    void test01_refreshStartedInBatches() {
+        when(itemSummaryService.refreshStarted(any(), eq(2))).thenReturn(2).thenReturn(1);
+        itemSummaryRefresher.refreshStarted();
+        verify(itemSummaryService, times(2)).refreshStarted(any(), eq(2));
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.ArchivedBookingRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.item.storage.ItemSummaryRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSummaryServiceTest {
+    @Mock
+    private ItemSummaryRepository itemSummaryRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+    @InjectMocks
+    private ItemSummaryService itemSummaryService;
+
+    @Test
+    void test01_addCommentKeepsLatestIds() {
+        ItemSummary summary = ItemSummary.builder().itemId(1L).commentCount(10)
+                .latestCommentIds(List.of(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L)).build();
+        when(itemSummaryRepository.findAllByItemIdInForUpdate(anyCollection())).thenReturn(List.of(summary));
+        Comment comment = Comment.builder().item(Item.builder().id(1L).build()).build();
+        comment.setId(11L);
+        itemSummaryService.addComment(comment);
+        assertEquals(11, summary.getCommentCount());
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L), summary.getLatestCommentIds());
+        verify(itemSummaryRepository).save(summary);
+    }
+
+    @Test
+    void test02_refreshSingleItemFallsBackToArchive() {
+        User booker = User.builder().id(2L).build();
+        Booking next = Booking.builder().id(5L).startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(2)).booker(booker).status(Status.APPROVED).build();
+        when(itemSummaryRepository.findAllByItemIdInForUpdate(anyCollection())).thenReturn(List.of());
+        when(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeAfterOrderByStartTimeAscIdAsc(eq(1L),
+                eq(Status.APPROVED), any(LocalDateTime.class))).thenReturn(Optional.of(next));
+        itemSummaryService.refreshBookings(List.of(1L));
+        verify(archivedBookingRepository).findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(
+                eq(1L), eq(Status.APPROVED), any(LocalDateTime.class));
+        verify(itemSummaryRepository).saveAll(Mockito.argThat(summaries -> {
+            ItemSummary summary = summaries.iterator().next();
+            return summary.getLastBooking() == null && summary.getNextBooking().getBookingId() == 5L;
+        }));
+    }
+
+    @Test
+    void test03_findRecomputesStartedNextBookingWithoutSaving() {
+        BookingSnapshot started = BookingSnapshot.builder().bookingId(5L).bookerId(2L)
+                .startTime(LocalDateTime.now().minusHours(1)).endTime(LocalDateTime.now().plusHours(1))
+                .status(Status.APPROVED).build();
+        ItemSummary stale = ItemSummary.builder().itemId(1L).nextBooking(started).build();
+        ItemSummary fresh = ItemSummary.builder().itemId(2L).build();
+        when(itemSummaryRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(stale, fresh));
+        when(bookingRepository.findFirstByItem_IdAndStatusAndStartTimeBeforeOrderByStartTimeDescIdDesc(eq(1L),
+                eq(Status.APPROVED), any(LocalDateTime.class))).thenReturn(Optional.of(Booking.builder().id(5L)
+                .startTime(started.getStartTime()).endTime(started.getEndTime())
+                .booker(User.builder().id(2L).build()).status(Status.APPROVED).build()));
+        Map<Long, ItemSummary> result = itemSummaryService.findByItemIds(List.of(1L, 2L));
+        assertEquals(5L, result.get(1L).getLastBooking().getBookingId());
+        assertNull(result.get(1L).getNextBooking());
+        assertEquals(fresh, result.get(2L));
+        assertEquals(started, stale.getNextBooking());
+        verify(itemSummaryRepository, never()).findAllByItemIdInForUpdate(anyCollection());
+        verify(itemSummaryRepository, never()).saveAll(any());
+        verifyNoInteractions(archivedBookingRepository);
+    }
+
+    @Test
+    void test04_refreshBatchUsesIndexedLookups() {
+        ItemBookingView last = Mockito.mock(ItemBookingView.class);
+        when(last.getId()).thenReturn(3L);
+        when(last.getItemId()).thenReturn(1L);
+        ItemBookingView archived = Mockito.mock(ItemBookingView.class);
+        when(archived.getId()).thenReturn(2L);
+        when(archived.getItemId()).thenReturn(2L);
+        when(itemSummaryRepository.findAllByItemIdInForUpdate(anyCollection())).thenReturn(List.of());
+        when(bookingRepository.findLastApprovedByItemIds(anyCollection(), any())).thenReturn(List.of(last));
+        when(archivedBookingRepository.findLastApprovedByItemIds(eq(List.of(2L)), any()))
+                .thenReturn(List.of(archived));
+        itemSummaryService.refreshBookings(List.of(1L, 2L));
+        verify(bookingRepository).findNextApprovedByItemIds(anyCollection(), any());
+        Map<Long, Long> expected = Map.of(1L, 3L, 2L, 2L);
+        verify(itemSummaryRepository).saveAll(Mockito.argThat(summaries -> {
+            for (ItemSummary summary : summaries) {
+                if (!expected.get(summary.getItemId()).equals(summary.getLastBooking().getBookingId())) {
+                    return false;
+                }
+            }
+            return true;
+        }));
+    }
+
+    @Test
+    void test05_refreshStartedRewritesSummaries() {
+        LocalDateTime now = LocalDateTime.now();
+        when(itemSummaryRepository.findItemIdsWithNextBookingStartedBy(now, PageRequest.of(0, 10)))
+                .thenReturn(List.of(1L));
+        when(itemSummaryRepository.findAllByItemIdInForUpdate(anyCollection())).thenReturn(List.of());
+        assertEquals(1, itemSummaryService.refreshStarted(now, 10));
+        verify(itemSummaryRepository).saveAll(Mockito.argThat(summaries ->
+                summaries.iterator().next().getItemId() == 1L));
+    }
+
+    @Test
+    void test06_commentsLimitIsCheckedAndAppliedOnRead() {
+        ItemSummary summary = ItemSummary.builder().itemId(1L).latestCommentIds(List.of(3L, 2L, 1L)).build();
+        ReflectionTestUtils.setField(itemSummaryService, "commentsLimit", 2);
+        itemSummaryService.checkCommentsLimit();
+        assertEquals(List.of(3L, 2L), itemSummaryService.latestCommentIds(summary));
+        ReflectionTestUtils.setField(itemSummaryService, "commentsLimit", 100);
+        assertThrows(IllegalArgumentException.class, () -> itemSummaryService.checkCommentsLimit());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+public class CommentRepositoryTest {
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private Item item;
+    private Item other;
+    private List<Comment> comments;
+
+    @BeforeEach
+    void setup() {
+        User user = userRepository.save(User.builder().name("user").email("user@user.ru").build());
+        item = itemRepository.save(Item.builder().name("item").description("item_description")
+                .owner(user).available(true).build());
+        other = itemRepository.save(Item.builder().name("other").description("other_description")
+                .owner(user).available(true).build());
+        LocalDate today = LocalDate.now();
+        comments = commentRepository.saveAll(List.of(
+                Comment.builder().text("old").item(item).author(user).created(today.minusDays(2)).build(),
+                Comment.builder().text("first").item(item).author(user).created(today).build(),
+                Comment.builder().text("second").item(item).author(user).created(today).build(),
+                Comment.builder().text("other").item(other).author(user).created(today).build()));
+    }
+
+    @Test
+    void test01_findAllWithAuthorByIdIn() {
+        List<Comment> latest = commentRepository.findAllWithAuthorByIdIn(List.of(comments.get(1).getId(),
+                comments.get(2).getId(), comments.get(3).getId()));
+        assertEquals(List.of("other", "second", "first"),
+                latest.stream().map(Comment::getText).collect(Collectors.toList()));
+    }
+
+    @Test
+    void test02_findPageByItemIdAfter() {
+        List<Comment> page = commentRepository.findPageByItemId(item.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of("second", "first"), page.stream().map(Comment::getText).collect(Collectors.toList()));
+        Comment last = page.get(1);
+        page = commentRepository.findPageByItemIdAfter(item.getId(), last.getCreated(), last.getId(),
+                PageRequest.of(0, 2));
+        assertEquals(List.of("old"), page.stream().map(Comment::getText).collect(Collectors.toList()));
+    }
+}
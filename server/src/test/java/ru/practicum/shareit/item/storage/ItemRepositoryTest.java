@@ -4,10 +4,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -19,6 +26,8 @@ public class ItemRepositoryTest {
     private ItemRepository itemRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
     private Item item;
 
     @BeforeEach
@@ -52,4 +61,63 @@ public class ItemRepositoryTest {
         result = itemRepository.findItemByText("itEm");
         assertThat(result.get(0)).isEqualTo(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    void test04_searchAvailableItemExcludesApprovedOverlaps() {
+        User booker = userRepository.save(User.builder().name("booker").email("booker@user.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.SECONDS);
+        bookingRepository.save(Booking.builder().startTime(start).endTime(start.plusDays(2))
+                .item(item).booker(booker).status(Status.APPROVED).build());
+        bookingRepository.save(Booking.builder().startTime(start.plusDays(10)).endTime(start.plusDays(12))
+                .item(item).booker(booker).status(Status.WAITING).build());
+        assertTrue(itemRepository.findAvailableItemByText("item", start.plusDays(1), start.plusDays(3),
+                Pageable.unpaged()).isEmpty());
+        assertThat(itemRepository.findAvailableItemByText("item", start.plusDays(2), start.plusDays(4),
+                Pageable.unpaged()).get(0)).isEqualTo(item);
+        assertThat(itemRepository.findAvailableItemByText("desc", start.plusDays(10), start.plusDays(11),
+                Pageable.unpaged()).get(0)).isEqualTo(item);
+    }
+
+    @Test
+    void test05_searchRanksNameMatchesFirst() {
+        User other = userRepository.save(User.builder().name("other").email("other@user.ru").build());
+        Item drill = itemRepository.save(Item.builder().name("drill").description("drill for item holes")
+                .owner(other).available(true).build());
+        itemRepository.save(Item.builder().name("item unavailable").description("hidden")
+                .owner(other).available(false).build());
+        List<Item> result = itemRepository.findItemByText("item", Pageable.unpaged());
+        assertEquals(List.of(item, drill), result);
+    }
+
+    @Test
+    void test06_countFacetsByText() {
+        User other = userRepository.save(User.builder().name("other").email("other@user.ru").build());
+        itemRepository.save(Item.builder().name("item unavailable").description("hidden")
+                .owner(other).available(false).build());
+        itemRepository.save(Item.builder().name("second item").description("spare")
+                .owner(other).available(true).build());
+        ItemFacetView facets = itemRepository.countFacetsByText("ITEM");
+        assertEquals(3, facets.getTotal());
+        assertEquals(2, facets.getAvailable());
+        assertEquals(0, facets.getRequested());
+        List<OwnerFacetView> owners = itemRepository.countOwnersByText("item", PageRequest.of(0, 10));
+        assertEquals(2, owners.size());
+        assertEquals(other.getId(), owners.get(0).getOwner());
+        assertEquals(2, owners.get(0).getTotal());
+        assertEquals(item.getOwner().getId(), owners.get(1).getOwner());
+    }
+
+    @Test
+    void test07_findAllByOwnerOrderedById() {
+        User other = userRepository.save(User.builder().name("other").email("other@user.ru").build());
+        itemRepository.save(Item.builder().name("foreign").description("foreign").owner(other).available(true).build());
+        Item second = itemRepository.save(Item.builder().name("second").description("second")
+                .owner(item.getOwner()).available(true).build());
+        Item third = itemRepository.save(Item.builder().name("third").description("third")
+                .owner(item.getOwner()).available(false).build());
+        Long ownerId = item.getOwner().getId();
+        assertEquals(List.of(item, second, third), itemRepository.findAllByOwner_IdOrderByIdAsc(ownerId,
+                Pageable.unpaged()));
+        assertEquals(List.of(third), itemRepository.findAllByOwner_IdOrderByIdAsc(ownerId, PageRequest.of(1, 2)));
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSummary;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class ItemSummaryRepositoryTest {
+    @Autowired
+    private ItemSummaryRepository itemSummaryRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void test01_saveAndLockSummary() {
+        User user = userRepository.save(User.builder().name("user").email("user@user.ru").build());
+        Item item = itemRepository.save(Item.builder().name("item").description("item_description")
+                .owner(user).available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        itemSummaryRepository.save(ItemSummary.builder()
+                .itemId(item.getId())
+                .nextBooking(BookingSnapshot.builder().bookingId(7L).startTime(start).endTime(start.plusDays(1))
+                        .bookerId(user.getId()).status(Status.APPROVED).build())
+                .commentCount(3)
+                .latestCommentIds(List.of(9L, 4L))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        ItemSummary summary = itemSummaryRepository.findAllByItemIdInForUpdate(List.of(item.getId())).get(0);
+        assertNull(summary.getLastBooking());
+        assertEquals(7L, summary.getNextBooking().getBookingId());
+        assertEquals(start, summary.getNextBooking().getStartTime());
+        assertEquals(Status.APPROVED, summary.getNextBooking().getStatus());
+        assertEquals(3, summary.getCommentCount());
+        assertEquals(List.of(9L, 4L), summary.getLatestCommentIds());
+    }
+
+    @Test
+    void test02_createAll() {
+        User user = userRepository.save(User.builder().name("user").email("user@user.ru").build());
+        List<Item> items = itemRepository.saveAllAndFlush(List.of(
+                Item.builder().name("drill").description("drill").owner(user).available(true).build(),
+                Item.builder().name("saw").description("saw").owner(user).available(true).build()));
+        List<Long> ids = List.of(items.get(0).getId(), items.get(1).getId());
+        assertEquals(2, itemSummaryRepository.createAll(ids));
+        entityManager.clear();
+        List<ItemSummary> summaries = itemSummaryRepository.findAllById(ids);
+        assertEquals(2, summaries.size());
+        assertEquals(0, summaries.get(0).getCommentCount());
+        assertTrue(summaries.get(0).getLatestCommentIds().isEmpty());
+    }
+
+    @Test
+    void test03_findItemIdsWithNextBookingStarted() {
+        User user = userRepository.save(User.builder().name("user").email("user@user.ru").build());
+        List<Item> items = itemRepository.saveAllAndFlush(List.of(
+                Item.builder().name("drill").description("drill").owner(user).available(true).build(),
+                Item.builder().name("saw").description("saw").owner(user).available(true).build(),
+                Item.builder().name("axe").description("axe").owner(user).available(true).build()));
+        LocalDateTime now = LocalDateTime.now();
+        itemSummaryRepository.saveAll(List.of(
+                ItemSummary.builder().itemId(items.get(0).getId()).nextBooking(BookingSnapshot.builder()
+                        .bookingId(1L).startTime(now.minusHours(1)).build()).build(),
+                ItemSummary.builder().itemId(items.get(1).getId()).nextBooking(BookingSnapshot.builder()
+                        .bookingId(2L).startTime(now.plusHours(1)).build()).build(),
+                ItemSummary.builder().itemId(items.get(2).getId()).build()));
+        entityManager.flush();
+        assertEquals(List.of(items.get(0).getId()),
+                itemSummaryRepository.findItemIdsWithNextBookingStartedBy(now, PageRequest.of(0, 10)));
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemNameTrieTest {
+    private ItemNameTrie trie;
+
+    @BeforeEach
+    void setup() {
+        trie = new ItemNameTrie();
+        trie.add("drill");
+        trie.add("drill");
+        trie.add("driver");
+        trie.add("dryer");
+        trie.add("dryer");
+        trie.add("dryer");
+        trie.add("saw");
+    }
+
+    @Test
+    void test01_suggestByPopularity() {
+        assertEquals(List.of("dryer", "drill", "driver"), trie.suggest("dr", 10));
+        assertEquals(List.of("dryer", "drill"), trie.suggest("d", 2));
+        assertEquals(List.of("drill", "driver"), trie.suggest("dri", 10));
+        assertEquals(List.of("drill"), trie.suggest("drill", 10));
+        assertTrue(trie.suggest("drills", 10).isEmpty());
+        assertTrue(trie.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void test02_removeUpdatesCountsAndPrunes() {
+        trie.remove("dryer");
+        trie.remove("dryer");
+        trie.remove("dryer");
+        trie.remove("dryer");
+        trie.remove("drive");
+        assertEquals(0, trie.count("dryer"));
+        assertEquals(List.of("drill", "driver"), trie.suggest("dr", 10));
+        trie.remove("drill");
+        trie.remove("drill");
+        assertEquals(List.of("driver"), trie.suggest("dr", 10));
+        assertEquals(1, trie.count("driver"));
+        trie.add("dr");
+        assertEquals(List.of("dr", "driver"), trie.suggest("d", 10));
+    }
+}
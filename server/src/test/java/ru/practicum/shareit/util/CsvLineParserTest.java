@@ -0,0 +1,22 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvLineParserTest {
+
+    @Test
+    void test01_parsePlainAndQuotedFields() {
+        assertEquals(List.of("drill", "cordless, 18V", "say \"hi\"", ""),
+                CsvLineParser.parse("drill,\"cordless, 18V\",\"say \"\"hi\"\"\","));
+    }
+
+    @Test
+    void test02_parseUnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> CsvLineParser.parse("drill,\"cordless"));
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.exception.PageableException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PageCursorTest {
+
+    @Test
+    void test01_encodeAndDecode() throws PageableException {
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 1, 30, 12, 0), 42L);
+        assertThat(PageCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(PageCursor.decode(PageCursor.ofId(7L).encode())).isEqualTo(PageCursor.ofId(7L));
+    }
+
+    @Test
+    void test02_decodeEmptyToken() throws PageableException {
+        assertThat(PageCursor.decode("")).isNull();
+    }
+
+    @Test
+    void test03_decodeIncorrectToken() {
+        assertThrows(PageableException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(PageableException.class, () -> PageCursor.decode("YWJj"));
+    }
+
+    @Test
+    void test04_nextToken() {
+        List<Long> ids = List.of(3L, 2L);
+        assertThat(PageCursor.nextToken(ids, PageRequest.of(0, 2), PageCursor::ofId))
+                .isEqualTo(PageCursor.ofId(2L).encode());
+        assertThat(PageCursor.nextToken(ids, PageRequest.of(0, 5), PageCursor::ofId)).isNull();
+    }
+}